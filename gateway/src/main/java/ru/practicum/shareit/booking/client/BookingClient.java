@@ -1,30 +1,48 @@
 package ru.practicum.shareit.booking.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
 import ru.practicum.shareit.booking.utils.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.SingleFlight;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         @Qualifier("gatewayStreamingRequestFactory") ClientHttpRequestFactory streamingRequestFactory,
+                         GatewayResponseCache responseCache,
+                         SingleFlight singleFlight) {
         super(builder
                 .uriTemplateHandler(
                         new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .requestFactory(() -> requestFactory)
+                .build(),
+                streamingRequestFactory,
+                responseCache,
+                singleFlight
         );
     }
 
@@ -33,16 +51,35 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingDto);
     }
 
+    public ResponseEntity<Object> createBookings(Long userId, List<BookingPostDto> bookingDtos) {
+        return post("/batch", userId, bookingDtos);
+    }
+
     public ResponseEntity<Object> patchBooking(Long userId, Long bookingId, Boolean isApproved) {
         Map<String, Object> parameters = Map.of("bookingId", bookingId, "approved", isApproved);
         return patch("/{bookingId}?approved={approved}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public ResponseEntity<Object> patchBookingStatuses(Long userId, List<BookingStatusPatchDto> patches) {
+        return patch("/status", userId, patches);
     }
 
-    public ResponseEntity<Object> getBookingsOfUser(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBooking(Long userId, Long bookingId, HttpHeaders headers) {
+        return get("/" + bookingId, userId, headers);
+    }
+
+    public ResponseEntity<Object> getBookingsOfUser(Long userId,
+                                                    BookingState state,
+                                                    Integer from,
+                                                    Integer size,
+                                                    String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor);
+            return get("?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -51,12 +88,34 @@ public class BookingClient extends BaseClient {
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsOfUserItems(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookingsOfUserItems(Long userId,
+                                                         BookingState state,
+                                                         Integer from,
+                                                         Integer size,
+                                                         String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor);
+            return get("/owner?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size);
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
-}
 
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfUserItems(Long userId) {
+        return stream("/owner/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+
+    public ResponseEntity<StreamingResponseBody> subscribeToBookingEvents(Long userId, String lastEventId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (lastEventId != null) {
+            headers.set("Last-Event-ID", lastEventId);
+        }
+        return stream("/events", userId, MediaType.TEXT_EVENT_STREAM, headers);
+    }
+}
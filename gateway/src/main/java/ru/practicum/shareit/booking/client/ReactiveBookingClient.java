@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.utils.BookingState;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.SingleFlight;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl,
+                                 WebClient.Builder builder,
+                                 @Qualifier("gatewayStreamingWebClient") WebClient streamingWebClient,
+                                 GatewayResponseCache responseCache,
+                                 SingleFlight singleFlight) {
+        super(serverUrl + API_PREFIX, builder, streamingWebClient, responseCache, singleFlight);
+    }
+
+    public Mono<ResponseEntity<Object>> createBooking(Long userId, BookingPostDto bookingDto) {
+        return post("", userId, bookingDto);
+    }
+
+    public Mono<ResponseEntity<Object>> createBookings(Long userId, List<BookingPostDto> bookingDtos) {
+        return post("/batch", userId, bookingDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> patchBooking(Long userId, Long bookingId, Boolean isApproved) {
+        Map<String, Object> parameters = Map.of("bookingId", bookingId, "approved", isApproved);
+        return patch("/{bookingId}?approved={approved}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> patchBookingStatuses(Long userId, List<BookingStatusPatchDto> patches) {
+        return patch("/status", userId, patches);
+    }
+
+    public Mono<ResponseEntity<Object>> getBooking(Long userId, Long bookingId, HttpHeaders headers) {
+        return get("/" + bookingId, userId, headers);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsOfUser(Long userId,
+                                                          BookingState state,
+                                                          Integer from,
+                                                          Integer size,
+                                                          String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor);
+            return get("?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size);
+        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsOfUserItems(Long userId,
+                                                               BookingState state,
+                                                               Integer from,
+                                                               Integer size,
+                                                               String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor);
+            return get("/owner?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size);
+        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<Void> exportBookingsOfUserItems(Long userId, ServerHttpResponse response) {
+        return stream("/owner/export", userId, MediaType.APPLICATION_NDJSON, response);
+    }
+
+    public Mono<Void> subscribeToBookingEvents(Long userId, String lastEventId, ServerHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        if (lastEventId != null) {
+            headers.set("Last-Event-ID", lastEventId);
+        }
+        return stream("/events", userId, MediaType.TEXT_EVENT_STREAM, headers, response);
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.ReactiveBookingClient;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.utils.BookingState;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.exceptions.UnknownStateException;
+import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+
+import javax.validation.Validator;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/bookings")
+public class ReactiveBookingController {
+    private static final int MAX_STATUS_PATCHES = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final ReactiveBookingClient bookingClient;
+    private final Validator validator;
+
+    @Autowired
+    public ReactiveBookingController(ReactiveBookingClient bookingClient, Validator validator) {
+        this.bookingClient = bookingClient;
+        this.validator = validator;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                      @Validated({Create.class}) @RequestBody BookingPostDto bookingDto) {
+        return bookingClient.createBooking(userId, bookingDto);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createBookings(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                       @RequestBody List<BookingPostDto> bookingDtos) {
+        if (bookingDtos.isEmpty() || bookingDtos.size() > MAX_BATCH_SIZE || bookingDtos.stream()
+                .anyMatch(booking -> booking == null || !validator.validate(booking, Create.class).isEmpty())) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return bookingClient.createBookings(userId, bookingDtos);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<Object>> patchBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                     @PathVariable Long bookingId,
+                                                     @RequestParam(name = "approved") Boolean isApproved) {
+        return bookingClient.patchBooking(userId, bookingId, isApproved);
+    }
+
+    @PatchMapping("/status")
+    public Mono<ResponseEntity<Object>> patchBookings(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                      @RequestBody List<BookingStatusPatchDto> patches) {
+        if (patches.isEmpty() || patches.size() > MAX_STATUS_PATCHES || patches.stream()
+                .anyMatch(patch -> patch.getBookingId() == null
+                        || patch.getBookingId() < 1
+                        || patch.getApproved() == null)) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return bookingClient.patchBookingStatuses(userId, patches);
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                   @PathVariable Long bookingId,
+                                                   @RequestHeader HttpHeaders headers) {
+        return bookingClient.getBooking(userId, bookingId, headers);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getBookingsOfUser(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                          @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                          @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                          @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new UnknownStateException(state));
+        return bookingClient.getBookingsOfUser(userId, bookingState, from, size, cursor);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<Object>> getBookingsOfUserItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(name = "state",
+                                                                       defaultValue = "ALL") String state,
+                                                               @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                               @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                               @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new UnknownStateException(state));
+
+        return bookingClient.getBookingsOfUserItems(userId, bookingState, from, size, cursor);
+    }
+
+    @GetMapping("/owner/export")
+    public Mono<Void> exportBookingsOfUserItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                ServerHttpResponse response) {
+        return bookingClient.exportBookingsOfUserItems(userId, response);
+    }
+
+    @GetMapping("/events")
+    public Mono<Void> subscribeToBookingEvents(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            ServerHttpResponse response) {
+        return bookingClient.subscribeToBookingEvents(userId, lastEventId, response);
+    }
+}
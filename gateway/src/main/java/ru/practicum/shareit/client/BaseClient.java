@@ -1,18 +1,39 @@
 package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Map;
 
 public abstract class BaseClient {
     protected final RestTemplate rest;
+    protected final GatewayResponseCache responseCache;
+    private final ClientHttpRequestFactory streamingRequestFactory;
+    private final SingleFlight singleFlight;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, GatewayResponseCache responseCache, SingleFlight singleFlight) {
+        this(rest, rest.getRequestFactory(), responseCache, singleFlight);
+    }
+
+    public BaseClient(RestTemplate rest,
+                      ClientHttpRequestFactory streamingRequestFactory,
+                      GatewayResponseCache responseCache,
+                      SingleFlight singleFlight) {
         this.rest = rest;
+        this.streamingRequestFactory = streamingRequestFactory;
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -27,6 +48,35 @@ public abstract class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> get(String path, long userId, HttpHeaders requestHeaders) {
+        HttpHeaders headers = GatewayRequests.conditionalHeaders(userId, requestHeaders);
+        return sendRequest(HttpMethod.GET, path, null, new HttpEntity<>(headers));
+    }
+
+    protected ResponseEntity<Object> getCached(GatewayCache cache,
+                                               String path,
+                                               long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        return getCached(cache, path, userId, parameters, new HttpHeaders());
+    }
+
+    protected ResponseEntity<Object> getCached(GatewayCache cache,
+                                               String path,
+                                               long userId,
+                                               @Nullable Map<String, Object> parameters,
+                                               HttpHeaders requestHeaders) {
+        String key = GatewayRequests.userCacheKey(userId, expand(path, parameters));
+        return getFromCache(cache, key, path, userId, parameters, requestHeaders);
+    }
+
+    protected ResponseEntity<Object> getShared(GatewayCache cache,
+                                               String path,
+                                               long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        String key = GatewayRequests.sharedCacheKey(expand(path, parameters));
+        return getFromCache(cache, key, path, userId, parameters, new HttpHeaders());
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,9 +129,101 @@ public abstract class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId, MediaType mediaType) {
+        return stream(path, userId, mediaType, new HttpHeaders());
+    }
+
+    protected ResponseEntity<StreamingResponseBody> stream(String path,
+                                                           long userId,
+                                                           MediaType mediaType,
+                                                           HttpHeaders headers) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = streamingRequestFactory.createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(GatewayRequests.streamHeaders(userId, mediaType, headers));
+            response = request.execute();
+
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                responseBuilder.contentType(contentType);
+            }
+            ClientHttpResponse shareitServerResponse = response;
+            return responseBuilder.body(out -> {
+                try (shareitServerResponse; InputStream in = shareitServerResponse.getBody()) {
+                    byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                }
+            });
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    protected String coalescingKey(URI uri, HttpHeaders headers) {
+        return GatewayRequests.coalescingKey(uri, headers);
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, GatewayRequests.defaultHeaders(userId));
+        ResponseEntity<Object> response = sendRequest(method, path, parameters, requestEntity);
+        if (GatewayRequests.invalidatesCache(method, response)) {
+            responseCache.invalidate(expand(path, parameters));
+        }
+        return response;
+    }
+
+    private ResponseEntity<Object> getFromCache(GatewayCache cache,
+                                                String key,
+                                                String path,
+                                                long userId,
+                                                @Nullable Map<String, Object> parameters,
+                                                HttpHeaders requestHeaders) {
+        ResponseEntity<Object> response = cache.get(key);
+        if (response == null) {
+            long generation = cache.generation();
+            HttpEntity<Void> requestEntity = new HttpEntity<>(GatewayRequests.defaultHeaders(userId));
+            String coalescingKey = coalescingKey(expand(path, parameters), requestEntity.getHeaders());
+            response = singleFlight.execute(coalescingKey + " " + generation,
+                    () -> exchange(HttpMethod.GET, path, parameters, requestEntity));
+            if (!GatewayRequests.isCacheable(response)) {
+                return response;
+            }
+            response = GatewayRequests.toCacheable(response);
+            cache.put(key, response, generation);
+        }
+        return GatewayRequests.notModifiedIfMatches(response, requestHeaders);
+    }
 
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method,
+                                                   String path,
+                                                   @Nullable Map<String, Object> parameters,
+                                                   HttpEntity<T> requestEntity) {
+        if (method == HttpMethod.GET) {
+            String key = coalescingKey(expand(path, parameters), requestEntity.getHeaders());
+            return singleFlight.execute(key, () -> exchange(method, path, parameters, requestEntity));
+        }
+        return exchange(method, path, parameters, requestEntity);
+    }
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method,
+                                                String path,
+                                                @Nullable Map<String, Object> parameters,
+                                                HttpEntity<T> requestEntity) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -95,19 +237,9 @@ public abstract class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
-        }
-        return headers;
-    }
-
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+        if (response.getStatusCode().is2xxSuccessful() || response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return GatewayRequests.withoutHopByHopHeaders(response);
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GatewayCache {
+    private final Cache<String, ResponseEntity<Object>> cache;
+    private final String route;
+    private final List<String> flushedBy;
+    private final AtomicLong generation = new AtomicLong();
+
+    GatewayCache(Cache<String, ResponseEntity<Object>> cache, String route, List<String> flushedBy) {
+        this.cache = cache;
+        this.route = route;
+        this.flushedBy = flushedBy;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    @Nullable
+    public ResponseEntity<Object> get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, ResponseEntity<Object> response, long fetchedAt) {
+        cache.put(key, response);
+        if (generation.get() != fetchedAt) {
+            cache.asMap().remove(key, response);
+        }
+    }
+
+    public void invalidate(String path) {
+        if (flushedBy.stream().anyMatch(flushingRoute -> isWithin(path, flushingRoute))) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        } else if (isWithin(path, route)) {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> isWithin(path, pathOf(key)));
+        }
+    }
+
+    private static boolean isWithin(String path, String route) {
+        return path.equals(route) || path.startsWith(route + "/");
+    }
+
+    private static String pathOf(String key) {
+        return URI.create(key.substring(key.lastIndexOf(' ') + 1)).getPath();
+    }
+}
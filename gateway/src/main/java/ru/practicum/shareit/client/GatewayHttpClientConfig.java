@@ -0,0 +1,216 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+public class GatewayHttpClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+    private static final String STREAMING_POOL_NAME = "shareit-server-streams";
+
+    @Primary
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public PoolingHttpClientConnectionManager gatewayConnectionManager(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${shareit-gateway.http.max-total:100}") int maxTotal,
+            @Value("${shareit-gateway.http.max-per-route:50}") int maxPerRoute,
+            @Value("${shareit-gateway.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        log.info("Пул соединений шлюза: всего {}, на маршрут {}", maxTotal, maxPerRoute);
+        return connectionManager(POOL_NAME, meterRegistry, maxTotal, maxPerRoute, validateAfterInactivity);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public PoolingHttpClientConnectionManager gatewayStreamingConnectionManager(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${shareit-gateway.http.streams.max-connections:200}") int maxConnections,
+            @Value("${shareit-gateway.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        log.info("Пул потоковых соединений шлюза: {}", maxConnections);
+        return connectionManager(STREAMING_POOL_NAME,
+                meterRegistry,
+                maxConnections,
+                maxConnections,
+                validateAfterInactivity);
+    }
+
+    @Primary
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public CloseableHttpClient gatewayHttpClient(
+            PoolingHttpClientConnectionManager gatewayConnectionManager,
+            @Value("${shareit-gateway.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-gateway.http.read-timeout:60s}") Duration readTimeout,
+            @Value("${shareit-gateway.http.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-gateway.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-gateway.http.idle-eviction:30s}") Duration idleEviction) {
+        return httpClient(gatewayConnectionManager, connectTimeout, readTimeout, leaseTimeout, keepAlive, idleEviction);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public CloseableHttpClient gatewayStreamingHttpClient(
+            @Qualifier("gatewayStreamingConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${shareit-gateway.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-gateway.http.read-timeout:60s}") Duration readTimeout,
+            @Value("${shareit-gateway.http.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-gateway.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-gateway.http.idle-eviction:30s}") Duration idleEviction) {
+        return httpClient(connectionManager,
+                connectTimeout,
+                readTimeout,
+                leaseTimeout,
+                keepAlive,
+                idleEviction);
+    }
+
+    @Primary
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ClientHttpRequestFactory gatewayRequestFactory(CloseableHttpClient gatewayHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(gatewayHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ClientHttpRequestFactory gatewayStreamingRequestFactory(
+            @Qualifier("gatewayStreamingHttpClient") CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Primary
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ConnectionProvider gatewayConnectionProvider(
+            @Value("${shareit-gateway.http.max-per-route:50}") int maxPerRoute,
+            @Value("${shareit-gateway.http.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-gateway.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-gateway.http.idle-eviction:30s}") Duration idleEviction) {
+        log.info("Пул соединений шлюза: на маршрут {}", maxPerRoute);
+        return connectionProvider(POOL_NAME, maxPerRoute, leaseTimeout, keepAlive, idleEviction);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ConnectionProvider gatewayStreamingConnectionProvider(
+            @Value("${shareit-gateway.http.streams.max-connections:200}") int maxConnections,
+            @Value("${shareit-gateway.http.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-gateway.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-gateway.http.idle-eviction:30s}") Duration idleEviction) {
+        log.info("Пул потоковых соединений шлюза: {}", maxConnections);
+        return connectionProvider(STREAMING_POOL_NAME, maxConnections, leaseTimeout, keepAlive, idleEviction);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebClientCustomizer gatewayWebClientCustomizer(
+            ConnectionProvider gatewayConnectionProvider,
+            @Value("${shareit-gateway.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-gateway.http.read-timeout:60s}") Duration readTimeout) {
+        ClientHttpConnector connector = connector(gatewayConnectionProvider, connectTimeout, readTimeout);
+        return builder -> builder.clientConnector(connector);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebClient gatewayStreamingWebClient(
+            WebClient.Builder builder,
+            @Qualifier("gatewayStreamingConnectionProvider") ConnectionProvider connectionProvider,
+            @Value("${shareit-gateway.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-gateway.http.read-timeout:60s}") Duration readTimeout) {
+        return builder
+                .clientConnector(connector(connectionProvider, connectTimeout, readTimeout))
+                .build();
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(String name,
+                                                                        ObjectProvider<MeterRegistry> meterRegistry,
+                                                                        int maxTotal,
+                                                                        int maxPerRoute,
+                                                                        Duration validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        meterRegistry.ifAvailable(registry ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(registry));
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  Duration connectTimeout,
+                                                  Duration readTimeout,
+                                                  Duration leaseTimeout,
+                                                  Duration keepAlive,
+                                                  Duration idleEviction) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) leaseTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0
+                            ? Math.min(serverKeepAlive, keepAlive.toMillis())
+                            : keepAlive.toMillis();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static ConnectionProvider connectionProvider(String name,
+                                                         int maxConnections,
+                                                         Duration leaseTimeout,
+                                                         Duration keepAlive,
+                                                         Duration idleEviction) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(leaseTimeout)
+                .maxIdleTime(keepAlive)
+                .evictInBackground(idleEviction)
+                .metrics(true)
+                .build();
+    }
+
+    private static ClientHttpConnector connector(ConnectionProvider connectionProvider,
+                                                 Duration connectTimeout,
+                                                 Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.net.URI;
+import java.util.List;
+
+public class GatewayRequests {
+    public static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private static final List<String> CONDITIONAL_HEADERS = List.of(
+            HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> UNCACHEABLE_DIRECTIVES = List.of(
+            "private",
+            "no-cache",
+            "no-store");
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.CONNECTION,
+            "Keep-Alive",
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING);
+
+    public static HttpHeaders defaultHeaders(@Nullable Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(USER_HEADER, String.valueOf(userId));
+        }
+        return headers;
+    }
+
+    public static HttpHeaders conditionalHeaders(long userId, HttpHeaders requestHeaders) {
+        HttpHeaders headers = defaultHeaders(userId);
+        CONDITIONAL_HEADERS.stream()
+                .filter(requestHeaders::containsKey)
+                .forEach(name -> headers.put(name, requestHeaders.get(name)));
+        return headers;
+    }
+
+    public static HttpHeaders streamHeaders(long userId, MediaType mediaType, HttpHeaders requestHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(requestHeaders);
+        headers.setAccept(List.of(mediaType, MediaType.APPLICATION_JSON));
+        headers.set(USER_HEADER, String.valueOf(userId));
+        return headers;
+    }
+
+    public static String userCacheKey(long userId, URI uri) {
+        return userId + " " + uri;
+    }
+
+    public static String sharedCacheKey(URI uri) {
+        return uri.toString();
+    }
+
+    public static String coalescingKey(URI uri, HttpHeaders headers) {
+        StringBuilder key = new StringBuilder(uri.toString());
+        key.append(' ').append(headers.getFirst(USER_HEADER));
+        CONDITIONAL_HEADERS.forEach(name -> key.append(' ').append(headers.get(name)));
+        return key.toString();
+    }
+
+    public static boolean invalidatesCache(HttpMethod method, ResponseEntity<Object> response) {
+        return method != HttpMethod.GET && response.getStatusCode().is2xxSuccessful();
+    }
+
+    public static boolean isCacheable(ResponseEntity<Object> response) {
+        String cacheControl = response.getHeaders().getCacheControl();
+        return response.getStatusCode() == HttpStatus.OK
+                && (cacheControl == null || UNCACHEABLE_DIRECTIVES.stream().noneMatch(cacheControl::contains));
+    }
+
+    public static ResponseEntity<Object> toCacheable(ResponseEntity<Object> response) {
+        HttpHeaders headers = new HttpHeaders();
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        String eTag = response.getHeaders().getETag();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    public static ResponseEntity<Object> notModifiedIfMatches(ResponseEntity<Object> response,
+                                                              HttpHeaders requestHeaders) {
+        String eTag = response.getStatusCode() == HttpStatus.OK ? response.getHeaders().getETag() : null;
+        if (eTag != null && matches(requestHeaders.getIfNoneMatch(), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return response;
+    }
+
+    public static ResponseEntity<Object> withoutHopByHopHeaders(ResponseEntity<Object> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        String strong = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        return ifNoneMatch.stream()
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(strong));
+    }
+}
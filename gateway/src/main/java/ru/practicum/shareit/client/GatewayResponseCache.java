@@ -0,0 +1,54 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
+@Component
+public class GatewayResponseCache {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<GatewayCache> caches = new CopyOnWriteArrayList<>();
+
+    public GatewayResponseCache(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public GatewayCache create(String name,
+                               long maximumSize,
+                               Duration ttl,
+                               String route,
+                               String... flushedBy) {
+        Cache<String, ResponseEntity<Object>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache, name);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag("cache", name)
+                    .register(registry);
+        });
+        GatewayCache gatewayCache = new GatewayCache(cache, route, List.of(flushedBy));
+        caches.add(gatewayCache);
+        log.info("Кэш ответов шлюза {}: размер {}, время жизни {}, сбрасывается при изменениях {}",
+                name, maximumSize, ttl, List.of(flushedBy));
+        return gatewayCache;
+    }
+
+    public void invalidate(URI uri) {
+        caches.forEach(cache -> cache.invalidate(uri.getPath()));
+    }
+}
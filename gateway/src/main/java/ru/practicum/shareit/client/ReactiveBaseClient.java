@@ -0,0 +1,250 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+public abstract class ReactiveBaseClient {
+    protected final WebClient webClient;
+    protected final GatewayResponseCache responseCache;
+    private final WebClient streamingWebClient;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final SingleFlight singleFlight;
+
+    public ReactiveBaseClient(String baseUrl,
+                              WebClient.Builder builder,
+                              GatewayResponseCache responseCache,
+                              SingleFlight singleFlight) {
+        this(baseUrl, builder, null, responseCache, singleFlight);
+    }
+
+    public ReactiveBaseClient(String baseUrl,
+                              WebClient.Builder builder,
+                              @Nullable WebClient streamingWebClient,
+                              GatewayResponseCache responseCache,
+                              SingleFlight singleFlight) {
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(baseUrl);
+        this.webClient = builder.uriBuilderFactory(uriBuilderFactory).build();
+        this.streamingWebClient = streamingWebClient != null ? streamingWebClient : webClient;
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path, long userId, HttpHeaders requestHeaders) {
+        HttpHeaders headers = GatewayRequests.conditionalHeaders(userId, requestHeaders);
+        return sendRequest(HttpMethod.GET, path, null, headers, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> getCached(GatewayCache cache,
+                                                     String path,
+                                                     long userId,
+                                                     @Nullable Map<String, Object> parameters) {
+        return getCached(cache, path, userId, parameters, new HttpHeaders());
+    }
+
+    protected Mono<ResponseEntity<Object>> getCached(GatewayCache cache,
+                                                     String path,
+                                                     long userId,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpHeaders requestHeaders) {
+        String key = GatewayRequests.userCacheKey(userId, expand(path, parameters));
+        return getFromCache(cache, key, path, userId, parameters, requestHeaders);
+    }
+
+    protected Mono<ResponseEntity<Object>> getShared(GatewayCache cache,
+                                                     String path,
+                                                     long userId,
+                                                     @Nullable Map<String, Object> parameters) {
+        String key = GatewayRequests.sharedCacheKey(expand(path, parameters));
+        return getFromCache(cache, key, path, userId, parameters, new HttpHeaders());
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path,
+                                                    Long userId,
+                                                    @Nullable Map<String, Object> parameters,
+                                                    T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path,
+                                                     Long userId,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> delete(String path) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, null, null, null);
+    }
+
+    protected Mono<Void> stream(String path, long userId, MediaType mediaType, ServerHttpResponse response) {
+        return stream(path, userId, mediaType, new HttpHeaders(), response);
+    }
+
+    protected Mono<Void> stream(String path,
+                                long userId,
+                                MediaType mediaType,
+                                HttpHeaders headers,
+                                ServerHttpResponse response) {
+        return streamingWebClient.get()
+                .uri(expand(path, null))
+                .headers(requestHeaders -> requestHeaders.addAll(
+                        GatewayRequests.streamHeaders(userId, mediaType, headers)))
+                .retrieve()
+                .onStatus(status -> true, shareitServerResponse -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(entity -> {
+                    response.setRawStatusCode(entity.getStatusCodeValue());
+                    MediaType contentType = entity.getHeaders().getContentType();
+                    if (contentType != null) {
+                        response.getHeaders().setContentType(contentType);
+                    }
+                    Flux<DataBuffer> body = entity.getBody() != null ? entity.getBody() : Flux.empty();
+                    return response.writeAndFlushWith(body.map(Flux::just));
+                })
+                .onErrorResume(IOException.class, e -> Mono.empty());
+    }
+
+    protected String coalescingKey(URI uri, HttpHeaders headers) {
+        return GatewayRequests.coalescingKey(uri, headers);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method,
+                                                                String path,
+                                                                Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body) {
+        return sendRequest(method, path, parameters, GatewayRequests.defaultHeaders(userId), body)
+                .doOnNext(response -> {
+                    if (GatewayRequests.invalidatesCache(method, response)) {
+                        responseCache.invalidate(expand(path, parameters));
+                    }
+                });
+    }
+
+    private Mono<ResponseEntity<Object>> getFromCache(GatewayCache cache,
+                                                      String key,
+                                                      String path,
+                                                      long userId,
+                                                      @Nullable Map<String, Object> parameters,
+                                                      HttpHeaders requestHeaders) {
+        ResponseEntity<Object> cached = cache.get(key);
+        Mono<ResponseEntity<Object>> response = cached != null
+                ? Mono.just(cached)
+                : fetchCacheable(cache, key, path, userId, parameters);
+        return response.map(entity -> GatewayRequests.notModifiedIfMatches(entity, requestHeaders));
+    }
+
+    private Mono<ResponseEntity<Object>> fetchCacheable(GatewayCache cache,
+                                                        String key,
+                                                        String path,
+                                                        long userId,
+                                                        @Nullable Map<String, Object> parameters) {
+        long generation = cache.generation();
+        URI uri = expand(path, parameters);
+        HttpHeaders headers = GatewayRequests.defaultHeaders(userId);
+        return coalescedGet(coalescingKey(uri, headers) + " " + generation, uri, headers)
+                .map(fetched -> {
+                    if (!GatewayRequests.isCacheable(fetched)) {
+                        return fetched;
+                    }
+                    ResponseEntity<Object> cacheable = GatewayRequests.toCacheable(fetched);
+                    cache.put(key, cacheable, generation);
+                    return cacheable;
+                });
+    }
+
+    private <T> Mono<ResponseEntity<Object>> sendRequest(HttpMethod method,
+                                                         String path,
+                                                         @Nullable Map<String, Object> parameters,
+                                                         HttpHeaders headers,
+                                                         @Nullable T body) {
+        URI uri = expand(path, parameters);
+        if (method == HttpMethod.GET) {
+            return coalescedGet(coalescingKey(uri, headers), uri, headers);
+        }
+        return exchange(method, uri, headers, body);
+    }
+
+    private Mono<ResponseEntity<Object>> coalescedGet(String key, URI uri, HttpHeaders headers) {
+        return singleFlight.coalesce(key, () -> exchange(HttpMethod.GET, uri, headers, null)
+                .retryWhen(Retry.max(1).filter(PrematureCloseException.class::isInstance)));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                      URI uri,
+                                                      HttpHeaders headers,
+                                                      @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.exchangeToMono(ReactiveBaseClient::prepareGatewayResponse);
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null
+                ? uriBuilderFactory.expand(path, parameters)
+                : uriBuilderFactory.expand(path);
+    }
+
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        if (response.statusCode().is2xxSuccessful() || response.statusCode() == HttpStatus.NOT_MODIFIED) {
+            return response.toEntity(Object.class)
+                    .map(GatewayRequests::withoutHopByHopHeaders);
+        }
+
+        return response.bodyToMono(byte[].class)
+                .map(body -> ResponseEntity.status(response.rawStatusCode()).<Object>body(body))
+                .defaultIfEmpty(ResponseEntity.status(response.rawStatusCode()).build());
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.utils.exceptions.GatewayTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class SingleFlight {
+    private static final String METRIC_NAME = "gateway.coalescing.requests";
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+    private final Duration waitTimeout;
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter overflows;
+    private final Counter timeouts;
+
+    public SingleFlight(ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${shareit-gateway.coalescing.max-waiters:1000}") int maxWaiters,
+                        @Value("${shareit-gateway.http.read-timeout:60s}") Duration waitTimeout) {
+        this.maxWaiters = maxWaiters;
+        this.waitTimeout = waitTimeout;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.leaders = counter(registry, "leader");
+        this.followers = counter(registry, "follower");
+        this.overflows = counter(registry, "overflow");
+        this.timeouts = counter(registry, "timeout");
+    }
+
+    public ResponseEntity<Object> execute(String key, Supplier<ResponseEntity<Object>> call) {
+        Flight flight = new Flight();
+        Flight inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight == null) {
+            leaders.increment();
+            try {
+                ResponseEntity<Object> response = call.get();
+                flight.response.complete(response);
+                return response;
+            } catch (RuntimeException | Error e) {
+                flight.response.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+
+        if (inFlight.waiters.incrementAndGet() > maxWaiters) {
+            inFlight.waiters.decrementAndGet();
+            overflows.increment();
+            log.debug("Превышено число ожидающих запроса {}, выполняем отдельный вызов", key);
+            return call.get();
+        }
+        followers.increment();
+        try {
+            return inFlight.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw timeout(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timeout(key);
+        } finally {
+            inFlight.waiters.decrementAndGet();
+        }
+    }
+
+    public Mono<ResponseEntity<Object>> coalesce(String key, Supplier<Mono<ResponseEntity<Object>>> call) {
+        return Mono.defer(() -> {
+            Flight flight = new Flight();
+            Flight inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                leaders.increment();
+                Mono.defer(call)
+                        .doFinally(signal -> flights.remove(key, flight))
+                        .subscribe(flight.response::complete,
+                                flight.response::completeExceptionally,
+                                () -> flight.response.complete(null));
+                return Mono.fromFuture(flight.response.copy());
+            }
+
+            if (inFlight.waiters.incrementAndGet() > maxWaiters) {
+                inFlight.waiters.decrementAndGet();
+                overflows.increment();
+                log.debug("Превышено число ожидающих запроса {}, выполняем отдельный вызов", key);
+                return call.get();
+            }
+            followers.increment();
+            return Mono.fromFuture(inFlight.response.copy())
+                    .timeout(waitTimeout, Mono.error(() -> timeout(key)))
+                    .doFinally(signal -> inFlight.waiters.decrementAndGet());
+        });
+    }
+
+    private GatewayTimeoutException timeout(String key) {
+        timeouts.increment();
+        log.warn("Не дождались ответа на запрос {} за {}", key, waitTimeout);
+        return new GatewayTimeoutException("не получен ответ на запрос за " + waitTimeout.toSeconds() + " с");
+    }
+
+    private static Counter counter(MeterRegistry registry, String role) {
+        return Counter.builder(METRIC_NAME)
+                .tag("role", role)
+                .register(registry);
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<ResponseEntity<Object>> response = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
@@ -2,36 +2,75 @@ package ru.practicum.shareit.item.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final GatewayCache items;
+    private final GatewayCache search;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      GatewayResponseCache responseCache,
+                      SingleFlight singleFlight,
+                      @Value("${shareit-gateway.cache.items.maximum-size:10000}") long maximumSize,
+                      @Value("${shareit-gateway.cache.items.ttl:30s}") Duration ttl) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache,
+                singleFlight
         );
+        this.items = responseCache.create("gateway.items", maximumSize, ttl, "/items", "/users");
+        this.search = responseCache.create("gateway.items.search",
+                maximumSize,
+                ttl,
+                "/items/search",
+                "/items",
+                "/users");
     }
 
     public ResponseEntity<Object> addItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItems(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> addItems(Long userId, List<ItemDto> items) {
+        return post("/batch", userId, items);
+    }
+
+    public ResponseEntity<Object> getItems(Long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor);
+            return get("?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
@@ -43,8 +82,20 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItem(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> getItem(Long userId, Long itemId, HttpHeaders headers) {
+        return getCached(items, "/" + itemId, userId, null, headers);
+    }
+
+    public ResponseEntity<Object> getComments(Long userId, Long itemId, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor);
+            return get("/" + itemId + "/comments?size={size}&cursor={cursor}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size);
+        return get("/" + itemId + "/comments?size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size) {
@@ -52,10 +103,44 @@ public class ItemClient extends BaseClient {
                 "text", text,
                 "from", from,
                 "size", size);
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return getShared(search, "/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> searchAvailableItems(Long userId,
+                                                       String text,
+                                                       LocalDateTime start,
+                                                       LocalDateTime end,
+                                                       Integer from,
+                                                       Integer size,
+                                                       String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("size", size);
+        StringBuilder path = new StringBuilder("/available?start={start}&end={end}&size={size}");
+        if (text != null) {
+            parameters.put("text", text);
+            path.append("&text={text}");
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            path.append("&cursor={cursor}");
+        } else {
+            parameters.put("from", from);
+            path.append("&from={from}");
+        }
+        return get(path.toString(), userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(Long userId, CommentPostDto dto, Long itemId) {
         return post("/" + itemId + "/comment", userId, dto);
     }
+
+    @Override
+    protected String coalescingKey(URI uri, HttpHeaders headers) {
+        if (uri.getPath().endsWith(API_PREFIX + "/search")) {
+            return uri.toString();
+        }
+        return super.coalescingKey(uri, headers);
+    }
 }
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -12,16 +15,24 @@ import ru.practicum.shareit.utils.Create;
 import ru.practicum.shareit.utils.Update;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
 
+import javax.validation.Validator;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/items")
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 100;
+
     ItemClient itemClient;
+    Validator validator;
 
     @Autowired
-    public ItemController(ItemClient itemClient) {
+    public ItemController(ItemClient itemClient, Validator validator) {
         this.itemClient = itemClient;
+        this.validator = validator;
     }
 
     @PostMapping
@@ -30,6 +41,16 @@ public class ItemController {
         return itemClient.addItem(userId, item);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                           @RequestBody List<ItemDto> items) {
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE || items.stream()
+                .anyMatch(item -> item == null || !validator.validate(item, Create.class).isEmpty())) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.addItems(userId, items);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> addComment(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
                                              @Validated({Create.class}) @RequestBody CommentPostDto dto,
@@ -40,11 +61,12 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
                                            @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                           @RequestParam(name = "size", defaultValue = "20") Integer size) {
+                                           @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                           @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
-        return itemClient.getItems(userId, from, size);
+        return itemClient.getItems(userId, from, size, cursor);
     }
 
     @PatchMapping("/{itemId}")
@@ -56,8 +78,20 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                          @PathVariable Long itemId) {
-        return itemClient.getItem(userId, itemId);
+                                          @PathVariable Long itemId,
+                                          @RequestHeader HttpHeaders headers) {
+        return itemClient.getItem(userId, itemId, headers);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                              @PathVariable Long itemId,
+                                              @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        if (size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.getComments(userId, itemId, size, cursor);
     }
 
     @GetMapping("/search")
@@ -73,4 +107,19 @@ public class ItemController {
         }
         return itemClient.searchItems(userId, text, from, size);
     }
+
+    @GetMapping("/available")
+    public ResponseEntity<Object> searchAvailableItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(name = "text", required = false) String text,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1 || !start.isBefore(end)) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.searchAvailableItems(userId, text, start, end, from, size, cursor);
+    }
 }
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.client.ReactiveItemClient;
+import ru.practicum.shareit.item.dto.CommentPostDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Update;
+import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/items")
+public class ReactiveItemController {
+    private static final int MAX_BATCH_SIZE = 100;
+
+    ReactiveItemClient itemClient;
+    Validator validator;
+
+    @Autowired
+    public ReactiveItemController(ReactiveItemClient itemClient, Validator validator) {
+        this.itemClient = itemClient;
+        this.validator = validator;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                @Validated({Create.class}) @RequestBody ItemDto item) {
+        return itemClient.addItem(userId, item);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                 @RequestBody List<ItemDto> items) {
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE || items.stream()
+                .anyMatch(item -> item == null || !validator.validate(item, Create.class).isEmpty())) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.addItems(userId, items);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                   @Validated({Create.class}) @RequestBody CommentPostDto dto,
+                                                   @PathVariable Long itemId) {
+        return itemClient.addComment(userId, dto, itemId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                 @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                 @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                 @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.getItems(userId, from, size, cursor);
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<Object>> patchItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                  @PathVariable Long itemId,
+                                                  @Validated({Update.class}) @RequestBody ItemDto itemDto) {
+        return itemClient.patchItem(userId, itemId, itemDto);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<Object>> getItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                @PathVariable Long itemId,
+                                                @RequestHeader HttpHeaders headers) {
+        return itemClient.getItem(userId, itemId, headers);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> getComments(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                    @PathVariable Long itemId,
+                                                    @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
+        if (size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.getComments(userId, itemId, size, cursor);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Object>> searchItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                    @RequestParam String text,
+                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        if (text.isBlank()) {
+            return Mono.just(new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK));
+        }
+        return itemClient.searchItems(userId, text, from, size);
+    }
+
+    @GetMapping("/available")
+    public Mono<ResponseEntity<Object>> searchAvailableItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(name = "text", required = false) String text,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1 || !start.isBefore(end)) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemClient.searchAvailableItems(userId, text, start, end, from, size, cursor);
+    }
+}
@@ -2,28 +2,52 @@ package ru.practicum.shareit.request.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
+    private final GatewayCache allRequests;
+
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             RestTemplateBuilder builder,
+                             ClientHttpRequestFactory requestFactory,
+                             GatewayResponseCache responseCache,
+                             SingleFlight singleFlight,
+                             @Value("${shareit-gateway.cache.requests.maximum-size:10000}") long maximumSize,
+                             @Value("${shareit-gateway.cache.requests.ttl:30s}") Duration ttl) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache,
+                singleFlight
         );
+        this.allRequests = responseCache.create("gateway.requests.all",
+                maximumSize,
+                ttl,
+                "/requests/all",
+                "/requests",
+                "/items",
+                "/users");
     }
 
     public ResponseEntity<Object> createRequest(Long userId, ItemRequestPostDto dto) {
@@ -34,15 +58,22 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public ResponseEntity<Object> getRequestById(Long userId, Long requestId, HttpHeaders headers) {
+        return get("/" + requestId, userId, headers);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return getCached(allRequests, "/all?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return getCached(allRequests, "/all?from={from}&size={size}", userId, parameters);
     }
 }
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.request.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.GatewayCache;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.SingleFlight;
+import ru.practicum.shareit.request.dto.ItemRequestPostDto;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    private final GatewayCache allRequests;
+
+    @Autowired
+    public ReactiveItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                                     WebClient.Builder builder,
+                                     GatewayResponseCache responseCache,
+                                     SingleFlight singleFlight,
+                                     @Value("${shareit-gateway.cache.requests.maximum-size:10000}") long maximumSize,
+                                     @Value("${shareit-gateway.cache.requests.ttl:30s}") Duration ttl) {
+        super(serverUrl + API_PREFIX, builder, responseCache, singleFlight);
+        this.allRequests = responseCache.create("gateway.requests.all",
+                maximumSize,
+                ttl,
+                "/requests/all",
+                "/requests",
+                "/items",
+                "/users");
+    }
+
+    public Mono<ResponseEntity<Object>> createRequest(Long userId, ItemRequestPostDto dto) {
+        return post("", userId, dto);
+    }
+
+    public Mono<ResponseEntity<Object>> getRequests(Long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getRequestById(Long userId, Long requestId, HttpHeaders headers) {
+        return get("/" + requestId, userId, headers);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllRequests(Long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return getCached(allRequests, "/all?size={size}&cursor={cursor}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return getCached(allRequests, "/all?from={from}&size={size}", userId, parameters);
+    }
+}
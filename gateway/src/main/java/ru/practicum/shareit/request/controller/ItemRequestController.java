@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +12,7 @@ import ru.practicum.shareit.utils.Create;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
     ItemRequestClient itemRequestClient;
@@ -32,17 +35,19 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getRequestById(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                                 @PathVariable Long requestId) {
-        return itemRequestClient.getRequestById(userId, requestId);
+                                                 @PathVariable Long requestId,
+                                                 @RequestHeader HttpHeaders headers) {
+        return itemRequestClient.getRequestById(userId, requestId, headers);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                 @RequestParam(name = "size", defaultValue = "20") Integer size) {
+                                                 @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                 @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
-        return itemRequestClient.getAllRequests(userId, from, size);
+        return itemRequestClient.getAllRequests(userId, from, size, cursor);
     }
 }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.request.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.client.ReactiveItemRequestClient;
+import ru.practicum.shareit.request.dto.ItemRequestPostDto;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/requests")
+public class ReactiveItemRequestController {
+    ReactiveItemRequestClient itemRequestClient;
+
+    @Autowired
+    public ReactiveItemRequestController(ReactiveItemRequestClient itemRequestClient) {
+        this.itemRequestClient = itemRequestClient;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createRequest(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                      @Validated({Create.class}) @RequestBody ItemRequestPostDto dto) {
+        return itemRequestClient.createRequest(userId, dto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId) {
+        return itemRequestClient.getRequests(userId);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                       @PathVariable Long requestId,
+                                                       @RequestHeader HttpHeaders headers) {
+        return itemRequestClient.getRequestById(userId, requestId, headers);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Object>> getAllRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                       @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                       @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return itemRequestClient.getAllRequests(userId, from, size, cursor);
+    }
+}
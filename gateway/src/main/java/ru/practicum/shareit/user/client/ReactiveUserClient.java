@@ -0,0 +1,47 @@
+package ru.practicum.shareit.user.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.SingleFlight;
+import ru.practicum.shareit.user.dto.UserDto;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/users";
+
+    @Autowired
+    public ReactiveUserClient(@Value("${shareit-server.url}") String serverUrl,
+                              WebClient.Builder builder,
+                              GatewayResponseCache responseCache,
+                              SingleFlight singleFlight) {
+        super(serverUrl + API_PREFIX, builder, responseCache, singleFlight);
+    }
+
+    public Mono<ResponseEntity<Object>> getUsers() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
+        return post("", userDto);
+    }
+
+    public Mono<ResponseEntity<Object>> getUser(Long userId) {
+        return get("/" + userId);
+    }
+
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto userDto) {
+        return patch("/" + userId, userDto);
+    }
+
+    public Mono<ResponseEntity<Object>> deleteUser(Long userId) {
+        return delete("/" + userId);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.client.ReactiveUserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Update;
+
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/users")
+public class ReactiveUserController {
+    ReactiveUserClient userClient;
+
+    @Autowired
+    public ReactiveUserController(ReactiveUserClient userClient) {
+        this.userClient = userClient;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getUsers() {
+        log.info("Запрошен список пользователей");
+        return userClient.getUsers();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createUser(@Validated({Create.class}) @RequestBody UserDto user) {
+        log.info("Создание пользователя");
+        return userClient.createUser(user);
+    }
+
+    @GetMapping(path = "/{userId}")
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable Long userId) {
+        log.info("Запрошен пользователь с id {}", userId);
+        return userClient.getUser(userId);
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable Long userId, @Validated({Update.class}) @RequestBody UserDto userDto) {
+        log.info("Обновление пользователя с id {}", userId);
+        return userClient.updateUser(userId, userDto);
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable Long userId) {
+        log.info("Удаление пользователя с id {}", userId);
+        return userClient.deleteUser(userId);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import ru.practicum.shareit.utils.exceptions.*;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
 import ru.practicum.shareit.utils.model.ErrorResponse;
@@ -14,6 +15,7 @@ import ru.practicum.shareit.utils.model.ErrorResponse;
 @RestControllerAdvice
 public class ErrorHandler {
     @ExceptionHandler({MethodArgumentNotValidException.class,
+            WebExchangeBindException.class,
             UnsupportedOperationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidateException(final Exception e) {
@@ -32,6 +34,15 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler({GatewayTimeoutException.class})
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponse handleGatewayTimeoutException(final Exception e) {
+        log.warn("Истекло время ожидания: {}", e.getMessage());
+        return new ErrorResponse(
+                "Истекло время ожидания ответа сервера: " + e.getMessage()
+        );
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Exception e) {
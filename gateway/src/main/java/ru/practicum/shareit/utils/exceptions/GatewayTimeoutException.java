@@ -0,0 +1,7 @@
+package ru.practicum.shareit.utils.exceptions;
+
+public class GatewayTimeoutException extends RuntimeException {
+    public GatewayTimeoutException(String message) {
+        super(message);
+    }
+}
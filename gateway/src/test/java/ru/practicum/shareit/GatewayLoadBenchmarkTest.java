@@ -0,0 +1,158 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Tag("benchmark")
+public class GatewayLoadBenchmarkTest {
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup-requests", 500);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 200);
+    private static final long UPSTREAM_LATENCY_MS = Long.getLong("benchmark.upstream-latency-ms", 50);
+    private static final int TOMCAT_THREADS = Integer.getInteger("benchmark.tomcat-threads", 16);
+
+    private static HttpServer shareitServer;
+    private static ExecutorService shareitServerExecutor;
+
+    @BeforeAll
+    public static void startShareitServer() throws IOException {
+        shareitServerExecutor = Executors.newFixedThreadPool(CONCURRENCY * 2);
+        shareitServer = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCY * 2);
+        shareitServer.createContext("/bookings", GatewayLoadBenchmarkTest::handleBookings);
+        shareitServer.setExecutor(shareitServerExecutor);
+        shareitServer.start();
+    }
+
+    @AfterAll
+    public static void stopShareitServer() {
+        shareitServer.stop(0);
+        shareitServerExecutor.shutdownNow();
+    }
+
+    @Test
+    void servletGatewayTest() throws Exception {
+        BenchmarkResult result = run(WebApplicationType.SERVLET);
+        Assertions.assertEquals(0, result.failed);
+        Assertions.assertEquals(REQUESTS, result.succeeded);
+    }
+
+    @Test
+    void reactiveGatewayTest() throws Exception {
+        BenchmarkResult result = run(WebApplicationType.REACTIVE);
+        Assertions.assertEquals(0, result.failed);
+        Assertions.assertEquals(REQUESTS, result.succeeded);
+    }
+
+    private static BenchmarkResult run(WebApplicationType type) throws Exception {
+        try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .web(type)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--shareit-server.url=http://localhost:" + shareitServer.getAddress().getPort(),
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO")) {
+            String baseUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+            load(baseUrl, WARMUP_REQUESTS);
+            BenchmarkResult result = load(baseUrl, REQUESTS);
+            log.info("Шлюз {}: {} запросов, параллельно {}, ошибок {}, {} запросов/с, p50 {} мс, p99 {} мс",
+                    type, REQUESTS, CONCURRENCY, result.failed, Math.round(result.throughput),
+                    result.p50, result.p99);
+            return result;
+        }
+    }
+
+    private static BenchmarkResult load(String baseUrl, int requests) throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(CONCURRENCY);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            int n = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings?from=" + n + "&size=10"))
+                    .header("X-Sharer-User-Id", String.valueOf(1 + n % 10))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long requestStart = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, e) -> {
+                        latencies[n] = System.nanoTime() - requestStart;
+                        if (e == null && response.statusCode() == 200 && response.body().startsWith("[")) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                        permits.release();
+                        done.countDown();
+                    });
+        }
+        done.await(5, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        clientExecutor.shutdownNow();
+        Arrays.sort(latencies);
+        return new BenchmarkResult(succeeded.get(),
+                failed.get(),
+                requests / seconds,
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[requests * 99 / 100]));
+    }
+
+    private static void handleBookings(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(UPSTREAM_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = ("[{\"id\":1,\"status\":\"APPROVED\",\"query\":\""
+                + exchange.getRequestURI().getQuery() + "\"}]").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class BenchmarkResult {
+        private final int succeeded;
+        private final int failed;
+        private final double throughput;
+        private final long p50;
+        private final long p99;
+    }
+}
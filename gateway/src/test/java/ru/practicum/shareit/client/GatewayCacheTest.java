@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+
+public class GatewayCacheTest {
+    private static final String FIRST_ITEM = GatewayRequests.userCacheKey(1L,
+            URI.create("http://localhost:9090/items/1"));
+    private static final String SECOND_ITEM = GatewayRequests.userCacheKey(1L,
+            URI.create("http://localhost:9090/items/2"));
+
+    private GatewayResponseCache responseCache;
+    private GatewayCache items;
+
+    @BeforeEach
+    public void setUp() {
+        responseCache = new GatewayResponseCache(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        items = responseCache.create("gateway.items", 100, Duration.ofMinutes(1), "/items", "/users");
+        items.put(FIRST_ITEM, ResponseEntity.ok("first"), items.generation());
+        items.put(SECOND_ITEM, ResponseEntity.ok("second"), items.generation());
+    }
+
+    @Test
+    void itemWriteInvalidatesOnlyThatItemTest() {
+        responseCache.invalidate(URI.create("http://localhost:9090/items/1"));
+
+        Assertions.assertNull(items.get(FIRST_ITEM));
+        Assertions.assertNotNull(items.get(SECOND_ITEM));
+    }
+
+    @Test
+    void commentInvalidatesCommentedItemTest() {
+        responseCache.invalidate(URI.create("http://localhost:9090/items/2/comment"));
+
+        Assertions.assertNotNull(items.get(FIRST_ITEM));
+        Assertions.assertNull(items.get(SECOND_ITEM));
+    }
+
+    @Test
+    void flushingRouteInvalidatesWholeCacheTest() {
+        responseCache.invalidate(URI.create("http://localhost:9090/users/1"));
+
+        Assertions.assertNull(items.get(FIRST_ITEM));
+        Assertions.assertNull(items.get(SECOND_ITEM));
+    }
+
+    @Test
+    void unrelatedWriteKeepsCacheTest() {
+        long generation = items.generation();
+
+        responseCache.invalidate(URI.create("http://localhost:9090/bookings/1"));
+
+        Assertions.assertNotNull(items.get(FIRST_ITEM));
+        Assertions.assertNotNull(items.get(SECOND_ITEM));
+        Assertions.assertEquals(generation, items.generation());
+    }
+
+    @Test
+    void responseFetchedBeforeWriteIsNotCachedTest() {
+        responseCache.invalidate(URI.create("http://localhost:9090/items/1"));
+        long fetchedAt = items.generation();
+
+        responseCache.invalidate(URI.create("http://localhost:9090/items/1"));
+        items.put(FIRST_ITEM, ResponseEntity.ok("stale"), fetchedAt);
+
+        Assertions.assertNull(items.get(FIRST_ITEM));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.util.List;
+
+@SpringBootTest(properties = "shareit-server.url=http://localhost:9090")
+public class GatewayHttpClientConfigTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ClientHttpRequestFactory gatewayRequestFactory;
+    @Autowired
+    @Qualifier("gatewayStreamingRequestFactory")
+    private ClientHttpRequestFactory gatewayStreamingRequestFactory;
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private ItemClient itemClient;
+    @Autowired
+    private ItemRequestClient itemRequestClient;
+    @Autowired
+    private BookingClient bookingClient;
+
+    @Test
+    void poolMetricsAreExportedTest() {
+        Gauge maxTotal = meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server")
+                .gauge();
+        Gauge streamsMaxTotal = meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server-streams")
+                .gauge();
+
+        Assertions.assertNotNull(maxTotal);
+        Assertions.assertEquals(100, maxTotal.value());
+        Assertions.assertNotNull(streamsMaxTotal);
+        Assertions.assertEquals(200, streamsMaxTotal.value());
+        Assertions.assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", "shareit-server")
+                .gauge());
+        Assertions.assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.pending")
+                .tag("httpclient", "shareit-server")
+                .gauge());
+    }
+
+    @Test
+    void clientsShareOneRequestFactoryTest() {
+        List<BaseClient> clients = List.of(userClient, itemClient, itemRequestClient, bookingClient);
+
+        clients.forEach(client -> Assertions.assertSame(gatewayRequestFactory,
+                ReflectionTestUtils.getField(client.rest, "requestFactory")));
+    }
+
+    @Test
+    void streamsUseSeparateRequestFactoryTest() {
+        Assertions.assertNotSame(gatewayRequestFactory, gatewayStreamingRequestFactory);
+        Assertions.assertSame(gatewayStreamingRequestFactory,
+                ReflectionTestUtils.getField(bookingClient, "streamingRequestFactory"));
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.util.List;
+
+public class GatewayRequestsTest {
+    private static final URI ITEM_URI = URI.create("http://localhost:9090/items/1");
+
+    @Test
+    void conditionalHeadersCopiesOnlyConditionalHeadersTest() {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch("\"1-2\"");
+        requestHeaders.set(HttpHeaders.COOKIE, "session=1");
+
+        HttpHeaders headers = GatewayRequests.conditionalHeaders(1L, requestHeaders);
+
+        Assertions.assertEquals(List.of("\"1-2\""), headers.getIfNoneMatch());
+        Assertions.assertEquals("1", headers.getFirst(GatewayRequests.USER_HEADER));
+        Assertions.assertFalse(headers.containsKey(HttpHeaders.COOKIE));
+    }
+
+    @Test
+    void coalescingKeyDependsOnUserAndConditionalHeadersTest() {
+        HttpHeaders first = GatewayRequests.defaultHeaders(1L);
+        HttpHeaders second = GatewayRequests.defaultHeaders(2L);
+        HttpHeaders conditional = GatewayRequests.defaultHeaders(1L);
+        conditional.setIfNoneMatch("\"1-2\"");
+
+        Assertions.assertEquals(GatewayRequests.coalescingKey(ITEM_URI, first),
+                GatewayRequests.coalescingKey(ITEM_URI, GatewayRequests.defaultHeaders(1L)));
+        Assertions.assertNotEquals(GatewayRequests.coalescingKey(ITEM_URI, first),
+                GatewayRequests.coalescingKey(ITEM_URI, second));
+        Assertions.assertNotEquals(GatewayRequests.coalescingKey(ITEM_URI, first),
+                GatewayRequests.coalescingKey(ITEM_URI, conditional));
+    }
+
+    @Test
+    void withoutHopByHopHeadersTest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"1-2\"");
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        headers.set("Keep-Alive", "timeout=60");
+        headers.setContentLength(10);
+
+        ResponseEntity<Object> response = GatewayRequests.withoutHopByHopHeaders(
+                new ResponseEntity<>("item", headers, HttpStatus.OK));
+
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertEquals("\"1-2\"", response.getHeaders().getETag());
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        Assertions.assertFalse(response.getHeaders().containsKey("Keep-Alive"));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        Assertions.assertEquals("item", response.getBody());
+    }
+
+    @Test
+    void notModifiedIfMatchesTest() {
+        ResponseEntity<Object> response = ResponseEntity.ok().eTag("\"1-2\"").body("item");
+        HttpHeaders matching = new HttpHeaders();
+        matching.setIfNoneMatch("W/\"1-2\"");
+        HttpHeaders other = new HttpHeaders();
+        other.setIfNoneMatch("\"1-3\"");
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED,
+                GatewayRequests.notModifiedIfMatches(response, matching).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK,
+                GatewayRequests.notModifiedIfMatches(response, other).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK,
+                GatewayRequests.notModifiedIfMatches(response, new HttpHeaders()).getStatusCode());
+    }
+
+    @Test
+    void invalidatesCacheOnlyOnSuccessfulWritesTest() {
+        Assertions.assertTrue(GatewayRequests.invalidatesCache(HttpMethod.PATCH, ResponseEntity.ok().build()));
+        Assertions.assertFalse(GatewayRequests.invalidatesCache(HttpMethod.GET, ResponseEntity.ok().build()));
+        Assertions.assertFalse(GatewayRequests.invalidatesCache(HttpMethod.POST,
+                ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    @Test
+    void privateResponsesAreNotCacheableTest() {
+        Assertions.assertTrue(GatewayRequests.isCacheable(ResponseEntity.ok("item")));
+        Assertions.assertFalse(GatewayRequests.isCacheable(ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body("item")));
+        Assertions.assertFalse(GatewayRequests.isCacheable(ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body("item")));
+        Assertions.assertFalse(GatewayRequests.isCacheable(ResponseEntity.status(HttpStatus.NOT_FOUND).body("item")));
+    }
+}
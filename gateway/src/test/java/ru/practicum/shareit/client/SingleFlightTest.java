@@ -0,0 +1,256 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.utils.exceptions.GatewayTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class SingleFlightTest {
+    private static final String KEY = "http://localhost/items/1 1";
+
+    private MeterRegistry registry;
+    private SingleFlight singleFlight;
+    private Sinks.One<ResponseEntity<Object>> upstream;
+    private AtomicInteger upstreamCalls;
+    private Supplier<Mono<ResponseEntity<Object>>> call;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        singleFlight = singleFlight(1000, Duration.ofSeconds(5));
+        upstream = Sinks.one();
+        upstreamCalls = new AtomicInteger();
+        call = () -> upstream.asMono().doOnSubscribe(subscription -> upstreamCalls.incrementAndGet());
+    }
+
+    @Test
+    void executeSharesUpstreamCallTest() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<ResponseEntity<Object>> blockingCall = () -> {
+            calls.incrementAndGet();
+            await(release);
+            return ResponseEntity.ok("item");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ResponseEntity<Object>>> responses = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                responses.add(executor.submit(() -> singleFlight.execute(KEY, blockingCall)));
+            }
+            awaitCount("follower", callers - 1);
+            release.countDown();
+
+            for (Future<ResponseEntity<Object>> response : responses) {
+                Assertions.assertEquals("item", response.get(1, TimeUnit.SECONDS).getBody());
+            }
+            Assertions.assertEquals(1, calls.get());
+            Assertions.assertEquals(1.0, registry.counter("gateway.coalescing.requests", "role", "leader").count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeLeaderFailureReachesFollowersTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<Object>> failingCall = () -> {
+            await(release);
+            throw new IllegalStateException("shareit server is down");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<Object>> leader = executor.submit(() -> singleFlight.execute(KEY, failingCall));
+            awaitCount("leader", 1);
+            Future<ResponseEntity<Object>> follower = executor.submit(() -> singleFlight.execute(KEY, failingCall));
+            awaitCount("follower", 1);
+            release.countDown();
+
+            ExecutionException leaderError = Assertions.assertThrows(ExecutionException.class,
+                    () -> leader.get(1, TimeUnit.SECONDS));
+            ExecutionException followerError = Assertions.assertThrows(ExecutionException.class,
+                    () -> follower.get(1, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            Assertions.assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeOverflowCallsUpstreamDirectlyTest() throws Exception {
+        singleFlight = singleFlight(2, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<ResponseEntity<Object>> blockingCall = () -> {
+            if (calls.incrementAndGet() == 1) {
+                await(release);
+            }
+            return ResponseEntity.ok("item");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<ResponseEntity<Object>> leader = executor.submit(() -> singleFlight.execute(KEY, blockingCall));
+            awaitCount("leader", 1);
+            List<Future<ResponseEntity<Object>>> followers = List.of(
+                    executor.submit(() -> singleFlight.execute(KEY, blockingCall)),
+                    executor.submit(() -> singleFlight.execute(KEY, blockingCall)));
+            awaitCount("follower", 2);
+
+            Assertions.assertEquals("item", singleFlight.execute(KEY, blockingCall).getBody());
+            Assertions.assertEquals(2, calls.get());
+            Assertions.assertEquals(1.0, registry.counter("gateway.coalescing.requests", "role", "overflow").count());
+
+            release.countDown();
+            Assertions.assertEquals("item", leader.get(1, TimeUnit.SECONDS).getBody());
+            for (Future<ResponseEntity<Object>> follower : followers) {
+                Assertions.assertEquals("item", follower.get(1, TimeUnit.SECONDS).getBody());
+            }
+            Assertions.assertEquals(2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeFollowerTimesOutOnHungLeaderTest() throws Exception {
+        singleFlight = singleFlight(1000, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<Object>> hungCall = () -> {
+            await(release);
+            return ResponseEntity.ok("item");
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> singleFlight.execute(KEY, hungCall));
+            awaitCount("leader", 1);
+
+            Assertions.assertThrows(GatewayTimeoutException.class, () -> singleFlight.execute(KEY, hungCall));
+            Assertions.assertEquals(1.0, registry.counter("gateway.coalescing.requests", "role", "timeout").count());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalesceFollowerTimesOutOnHungLeaderTest() {
+        singleFlight = singleFlight(1000, Duration.ofMillis(100));
+        singleFlight.coalesce(KEY, call).subscribe();
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.coalesce(KEY, call).toFuture();
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                () -> follower.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(GatewayTimeoutException.class, e.getCause());
+    }
+
+    @Test
+    void coalesceSharesUpstreamCallTest() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> leader = singleFlight.coalesce(KEY, call).toFuture();
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.coalesce(KEY, call).toFuture();
+
+        upstream.tryEmitValue(ResponseEntity.ok("item"));
+
+        Assertions.assertEquals("item", leader.get(1, TimeUnit.SECONDS).getBody());
+        Assertions.assertEquals("item", follower.get(1, TimeUnit.SECONDS).getBody());
+        Assertions.assertEquals(1, upstreamCalls.get());
+        Assertions.assertEquals(1.0, registry.counter("gateway.coalescing.requests", "role", "follower").count());
+    }
+
+    @Test
+    void coalesceLeaderCancelDoesNotFailFollowersTest() throws Exception {
+        Disposable leader = singleFlight.coalesce(KEY, call).subscribe();
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.coalesce(KEY, call).toFuture();
+
+        leader.dispose();
+        upstream.tryEmitValue(ResponseEntity.ok("item"));
+
+        Assertions.assertEquals("item", follower.get(1, TimeUnit.SECONDS).getBody());
+        Assertions.assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void coalesceEmptyUpstreamCompletesFollowersEmptyTest() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> leader = singleFlight.coalesce(KEY, call).toFuture();
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.coalesce(KEY, call).toFuture();
+
+        upstream.tryEmitEmpty();
+
+        Assertions.assertNull(leader.get(1, TimeUnit.SECONDS));
+        Assertions.assertNull(follower.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void coalesceLeaderErrorReachesFollowersTest() {
+        CompletableFuture<ResponseEntity<Object>> leader = singleFlight.coalesce(KEY, call).toFuture();
+        CompletableFuture<ResponseEntity<Object>> follower = singleFlight.coalesce(KEY, call).toFuture();
+
+        upstream.tryEmitError(new IllegalStateException("shareit server is down"));
+
+        Assertions.assertThrows(Exception.class, () -> leader.get(1, TimeUnit.SECONDS));
+        Exception e = Assertions.assertThrows(Exception.class, () -> follower.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void coalesceStartsNewFlightAfterCompletionTest() throws Exception {
+        singleFlight.coalesce(KEY, call).toFuture();
+        upstream.tryEmitValue(ResponseEntity.ok("item"));
+
+        upstream = Sinks.one();
+        CompletableFuture<ResponseEntity<Object>> next = singleFlight.coalesce(KEY, call).toFuture();
+        upstream.tryEmitValue(ResponseEntity.ok("updated"));
+
+        Assertions.assertEquals("updated", next.get(1, TimeUnit.SECONDS).getBody());
+        Assertions.assertEquals(2, upstreamCalls.get());
+    }
+
+    private SingleFlight singleFlight(int maxWaiters, Duration waitTimeout) {
+        return new SingleFlight(
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class),
+                maxWaiters,
+                waitTimeout);
+    }
+
+    private void awaitCount(String role, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("gateway.coalescing.requests", "role", role).count() < count) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("Не дождались " + count + " запросов с ролью " + role);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.SingleFlight;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ItemClientTest {
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    private ItemClient itemClient;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    public void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        itemClient = new ItemClient(SERVER_URL,
+                new RestTemplateBuilder(),
+                new SimpleClientHttpRequestFactory(),
+                new GatewayResponseCache(beanFactory.getBeanProvider(MeterRegistry.class)),
+                new SingleFlight(beanFactory.getBeanProvider(MeterRegistry.class), 1000, Duration.ofSeconds(5)),
+                100,
+                Duration.ofMinutes(1));
+        server = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(itemClient, "rest"))
+                .build();
+    }
+
+    @Test
+    void getItemIsCachedUntilItemChangesTest() {
+        expectItem(1L, ExpectedCount.once(), new HttpHeaders());
+        expectItem(2L, ExpectedCount.once(), new HttpHeaders());
+        server.expect(requestTo(SERVER_URL + "/items/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+        expectItem(1L, ExpectedCount.once(), new HttpHeaders());
+
+        itemClient.getItem(2L, 1L, new HttpHeaders());
+        itemClient.getItem(2L, 2L, new HttpHeaders());
+        itemClient.getItem(2L, 1L, new HttpHeaders());
+        itemClient.patchItem(1L, 1L, new ItemDto(null, "updated", null, null, null, null, null, null));
+        itemClient.getItem(2L, 2L, new HttpHeaders());
+        itemClient.getItem(2L, 1L, new HttpHeaders());
+
+        server.verify();
+    }
+
+    @Test
+    void getItemOfOwnerIsNotCachedTest() {
+        HttpHeaders personal = new HttpHeaders();
+        personal.setCacheControl(CacheControl.noCache().cachePrivate());
+        expectItem(1L, ExpectedCount.twice(), personal);
+
+        Assertions.assertEquals(HttpStatus.OK, itemClient.getItem(1L, 1L, new HttpHeaders()).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, itemClient.getItem(1L, 1L, new HttpHeaders()).getStatusCode());
+
+        server.verify();
+    }
+
+    @Test
+    void searchAvailableItemsForwardsCursorTest() {
+        HttpHeaders nextPage = new HttpHeaders();
+        nextPage.set("X-Next-Cursor", "Ng");
+        server.expect(requestTo(startsWith(SERVER_URL + "/items/available?")))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(queryParam("size", "1"))
+                .andExpect(queryParam("cursor", "NQ"))
+                .andExpect(request -> Assertions.assertFalse(
+                        UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().containsKey("from")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).headers(nextPage));
+
+        HttpHeaders headers = itemClient.searchAvailableItems(1L,
+                null,
+                LocalDateTime.of(2030, 1, 1, 10, 0),
+                LocalDateTime.of(2030, 1, 2, 10, 0),
+                0,
+                1,
+                "NQ").getHeaders();
+
+        Assertions.assertEquals("Ng", headers.getFirst("X-Next-Cursor"));
+        server.verify();
+    }
+
+    private void expectItem(long itemId, ExpectedCount count, HttpHeaders headers) {
+        server.expect(count, requestTo(SERVER_URL + "/items/" + itemId))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"id\":" + itemId + "}", MediaType.APPLICATION_JSON).headers(headers));
+    }
+}
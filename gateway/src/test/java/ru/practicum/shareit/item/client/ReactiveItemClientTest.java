@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.GatewayRequests;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.SingleFlight;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ReactiveItemClientTest {
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private ReactiveItemClient itemClient;
+
+    @BeforeEach
+    public void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        WebClient.Builder builder = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.CONNECTION, "keep-alive")
+                            .header(HttpHeaders.ETAG, "\"1-0\"")
+                            .body("{\"id\":1}")
+                            .build());
+                });
+        itemClient = new ReactiveItemClient(SERVER_URL,
+                builder,
+                new GatewayResponseCache(beanFactory.getBeanProvider(MeterRegistry.class)),
+                new SingleFlight(beanFactory.getBeanProvider(MeterRegistry.class), 1000, Duration.ofSeconds(5)),
+                100,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getItemForwardsUserAndStripsHopByHopHeadersTest() {
+        ResponseEntity<Object> response = itemClient.getItem(2L, 1L, new HttpHeaders()).block();
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals("\"1-0\"", response.getHeaders().getETag());
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        Assertions.assertEquals(1, requests.size());
+        Assertions.assertEquals(SERVER_URL + "/items/1", requests.get(0).url().toString());
+        Assertions.assertEquals("2", requests.get(0).headers().getFirst(GatewayRequests.USER_HEADER));
+    }
+
+    @Test
+    void getItemIsCachedUntilItemChangesTest() {
+        itemClient.getItem(2L, 1L, new HttpHeaders()).block();
+        itemClient.getItem(2L, 1L, new HttpHeaders()).block();
+        itemClient.patchItem(1L, 1L, new ItemDto(null, "updated", null, null, null, null, null, null)).block();
+        itemClient.getItem(2L, 1L, new HttpHeaders()).block();
+
+        Assertions.assertEquals(List.of(HttpMethod.GET, HttpMethod.PATCH, HttpMethod.GET),
+                requests.stream().map(ClientRequest::method).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getItemReturnsNotModifiedForMatchingETagTest() {
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch("\"1-0\"");
+
+        ResponseEntity<Object> response = itemClient.getItem(2L, 1L, conditional).block();
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    }
+
+    @Test
+    void searchAvailableItemsForwardsCursorTest() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        itemClient.searchAvailableItems(1L, "drill", start, start.plusDays(1), 0, 10, "abc").block();
+
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(requests.get(0).url()).build().getQueryParams();
+        Assertions.assertEquals("/items/available", requests.get(0).url().getPath());
+        Assertions.assertEquals("abc", query.getFirst("cursor"));
+        Assertions.assertEquals("drill", query.getFirst("text"));
+        Assertions.assertFalse(query.containsKey("from"));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiveJob {
+    private final BookingStorage bookingStorage;
+    private final int retentionMonths;
+    private final int monthsAhead;
+    private final Duration lockFor;
+
+    @Autowired
+    public BookingArchiveJob(BookingStorage bookingStorage,
+                             @Value("${shareit.bookings.archive.retention-months:12}") int retentionMonths,
+                             @Value("${shareit.bookings.partitions.months-ahead:12}") int monthsAhead,
+                             @Value("${shareit.bookings.archive.lock-for:1h}") Duration lockFor) {
+        this.bookingStorage = bookingStorage;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+        this.lockFor = lockFor;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron:0 0 3 * * *}")
+    @Transactional
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!bookingStorage.tryLockArchive(now, now.plus(lockFor))) {
+            log.info("Архивация бронирований уже выполняется другим экземпляром");
+            return;
+        }
+        LocalDate today = now.toLocalDate();
+        bookingStorage.preparePartitions(today, monthsAhead);
+        int archived = bookingStorage.archiveEndedBefore(today.minusMonths(retentionMonths).withDayOfMonth(1));
+        log.info("Архивировано завершенных бронирований: {}", archived);
+    }
+}
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
+import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class BookingAvailabilityEngine {
+    private static final int BOOTSTRAP_BATCH_SIZE = 500;
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String OVERLAP_CONSTRAINT_SUFFIX = "_no_overlap";
+
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+    private final BookingIntervalIndex approved = new BookingIntervalIndex();
+    private final BookingIntervalIndex occupied = new BookingIntervalIndex();
+
+    @Autowired
+    public BookingAvailabilityEngine(BookingStorage bookingStorage, ItemStorage itemStorage) {
+        this.bookingStorage = bookingStorage;
+        this.itemStorage = itemStorage;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        LocalDateTime now = LocalDateTime.now();
+        Pageable pageable = PageRequest.of(0, BOOTSTRAP_BATCH_SIZE);
+        Slice<Booking> bookings;
+        do {
+            bookings = bookingStorage.findAllByStatusInAndEndAfterOrderByIdAsc(
+                    List.of(BookingStatus.APPROVED, BookingStatus.WAITING),
+                    now,
+                    pageable);
+            for (Booking booking : bookings) {
+                long itemId = booking.getItem().getId();
+                occupied.put(itemId, booking.getId(), booking.getStart(), booking.getEnd(), now);
+                if (booking.getStatus() == BookingStatus.APPROVED) {
+                    approved.put(itemId, booking.getId(), booking.getStart(), booking.getEnd(), now);
+                }
+            }
+            pageable = bookings.nextPageable();
+        } while (bookings.hasNext());
+        log.info("Индекс бронирований построен, подтвержденных интервалов: {}, занятых интервалов: {}",
+                approved.size(),
+                occupied.size());
+    }
+
+    public void requireAvailable(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (approved.overlaps(itemId, start, end)) {
+            throw overlap(itemId, start, end);
+        }
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return !occupied.overlaps(itemId, start, end);
+    }
+
+    public void booked(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        afterCommit(() -> occupied.put(itemId, bookingId, start, end, LocalDateTime.now()));
+    }
+
+    public void released(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        afterCommit(() -> release(itemId, bookingId));
+    }
+
+    public void refresh(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingDetails booking : bookingStorage.findDetailsByIdIn(bookingIds)) {
+            switch (booking.getStatus()) {
+                case WAITING:
+                    occupied.put(booking.getItemId(), booking.getId(), booking.getStart(), booking.getEnd(), now);
+                    break;
+                case APPROVED:
+                    occupy(booking.getItemId(), booking.getId(), booking.getStart(), booking.getEnd(), now);
+                    break;
+                default:
+                    release(booking.getItemId(), booking.getId());
+            }
+        }
+    }
+
+    public void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        requireAvailable(itemId, booking.getStart(), booking.getEnd());
+        itemStorage.findLockedById(itemId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден предмет с id " + itemId)
+        );
+        if (bookingStorage.existsOverlap(itemId,
+                BookingStatus.APPROVED,
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getId())) {
+            throw overlap(itemId, booking.getStart(), booking.getEnd());
+        }
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        afterCommit(() -> occupy(itemId, bookingId, start, end, LocalDateTime.now()));
+    }
+
+    public Set<Long> reserveAll(Collection<BookingDetails> bookings) {
+        Set<Long> rejected = new HashSet<>();
+        if (bookings.isEmpty()) {
+            return rejected;
+        }
+        Set<Long> itemIds = new TreeSet<>();
+        List<BookingDetails> unchecked = new ArrayList<>();
+        for (BookingDetails booking : bookings) {
+            itemIds.add(booking.getItemId());
+            if (approved.overlaps(booking.getItemId(), booking.getStart(), booking.getEnd())) {
+                rejected.add(booking.getId());
+            } else {
+                unchecked.add(booking);
+            }
+        }
+        itemStorage.findLockedByIdInOrderByIdAsc(itemIds);
+        Map<Long, List<Booking>> taken = bookingStorage.findApprovedOverlapping(unchecked)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        Map<Long, List<BookingDetails>> accepted = new HashMap<>();
+        for (BookingDetails booking : unchecked) {
+            Long itemId = booking.getItemId();
+            boolean overlaps = taken.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(other -> !other.getId().equals(booking.getId())
+                            && other.getStart().isBefore(booking.getEnd())
+                            && other.getEnd().isAfter(booking.getStart()))
+                    || accepted.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                            && other.getEnd().isAfter(booking.getStart()));
+            if (overlaps) {
+                rejected.add(booking.getId());
+            } else {
+                accepted.computeIfAbsent(itemId, id -> new ArrayList<>()).add(booking);
+            }
+        }
+        return rejected;
+    }
+
+    public void approvedAll(Collection<BookingDetails> bookings) {
+        List<BookingDetails> approvedBookings = List.copyOf(bookings);
+        afterCommit(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (BookingDetails booking : approvedBookings) {
+                occupy(booking.getItemId(), booking.getId(), booking.getStart(), booking.getEnd(), now);
+            }
+        });
+    }
+
+    public void releasedAll(Collection<BookingDetails> bookings) {
+        List<BookingDetails> released = List.copyOf(bookings);
+        afterCommit(() -> released.forEach(booking -> release(booking.getItemId(), booking.getId())));
+    }
+
+    public boolean isOverlapViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        ConstraintViolationException cause = (ConstraintViolationException) e.getCause();
+        String constraint = cause.getConstraintName() != null
+                ? cause.getConstraintName()
+                : String.valueOf(cause.getSQLException().getMessage());
+        return EXCLUSION_VIOLATION.equals(cause.getSQLState()) && constraint.contains(OVERLAP_CONSTRAINT_SUFFIX);
+    }
+
+    public RuntimeException translate(DataIntegrityViolationException e, Booking booking) {
+        if (isOverlapViolation(e)) {
+            return overlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
+        return e;
+    }
+
+    public RuntimeException translate(DataIntegrityViolationException e, Collection<Long> bookingIds) {
+        if (isOverlapViolation(e)) {
+            return new BookingOverlapException("Аренды с id " + bookingIds
+                    + " пересекаются с подтвержденными бронированиями");
+        }
+        return e;
+    }
+
+    private void occupy(long itemId, long bookingId, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        occupied.put(itemId, bookingId, start, end, now);
+        approved.put(itemId, bookingId, start, end, now);
+    }
+
+    private void release(long itemId, long bookingId) {
+        occupied.remove(itemId, bookingId);
+        approved.remove(itemId, bookingId);
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private BookingOverlapException overlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingOverlapException("Предмет с id " + itemId + " уже забронирован на период с "
+                + start + " по " + end);
+    }
+}
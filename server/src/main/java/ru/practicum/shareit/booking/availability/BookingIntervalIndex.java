@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class BookingIntervalIndex {
+    private final Map<Long, ItemIntervals> intervals = new ConcurrentHashMap<>();
+
+    void put(long itemId, long bookingId, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        intervals.compute(itemId, (Long key, ItemIntervals current) -> {
+            List<Interval> updated = current == null ? new ArrayList<>() : current.remaining(bookingId, now);
+            updated.add(new Interval(bookingId, start, end));
+            return new ItemIntervals(updated);
+        });
+    }
+
+    void remove(long itemId, long bookingId) {
+        intervals.computeIfPresent(itemId, (Long key, ItemIntervals current) -> {
+            List<Interval> updated = current.remaining(bookingId, LocalDateTime.MIN);
+            return updated.isEmpty() ? null : new ItemIntervals(updated);
+        });
+    }
+
+    boolean overlaps(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals itemIntervals = intervals.get(itemId);
+        return itemIntervals != null && itemIntervals.overlaps(start, end);
+    }
+
+    int size() {
+        return intervals.values().stream()
+                .mapToInt((ItemIntervals itemIntervals) -> itemIntervals.bookingIds.length)
+                .sum();
+    }
+
+    private static class Interval {
+        private final long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class ItemIntervals {
+        private final long[] bookingIds;
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] ends;
+        private final LocalDateTime[] maxEnds;
+
+        ItemIntervals(List<Interval> intervals) {
+            intervals.sort(Comparator.comparing((Interval interval) -> interval.start));
+            int size = intervals.size();
+            bookingIds = new long[size];
+            starts = new LocalDateTime[size];
+            ends = new LocalDateTime[size];
+            maxEnds = new LocalDateTime[size];
+            for (int i = 0; i < size; i++) {
+                Interval interval = intervals.get(i);
+                bookingIds[i] = interval.bookingId;
+                starts[i] = interval.start;
+                ends[i] = interval.end;
+                maxEnds[i] = i > 0 && maxEnds[i - 1].isAfter(interval.end) ? maxEnds[i - 1] : interval.end;
+            }
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle].isBefore(end)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low > 0 && maxEnds[low - 1].isAfter(start);
+        }
+
+        List<Interval> remaining(long excludedBookingId, LocalDateTime now) {
+            List<Interval> remaining = new ArrayList<>(bookingIds.length + 1);
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] != excludedBookingId && ends[i].isAfter(now)) {
+                    remaining.add(new Interval(bookingIds[i], starts[i], ends[i]));
+                }
+            }
+            return remaining;
+        }
+    }
+}
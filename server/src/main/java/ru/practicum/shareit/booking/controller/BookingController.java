@@ -1,24 +1,52 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.events.BookingEventBroker;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.utils.BookingState;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.ETags;
 import ru.practicum.shareit.utils.exceptions.UnknownStateException;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.model.PageCursor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
     BookingService bookingService;
+    UserService userService;
+    BookingEventBroker bookingEventBroker;
+    ObjectWriter exportWriter;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService,
+                             UserService userService,
+                             BookingEventBroker bookingEventBroker,
+                             ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.userService = userService;
+        this.bookingEventBroker = bookingEventBroker;
+        this.exportWriter = objectMapper.writerFor(BookingDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @PostMapping
@@ -27,6 +55,12 @@ public class BookingController {
         return bookingService.createBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public Collection<BookingDto> createBookings(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                 @RequestBody List<BookingPostDto> bookingDtos) {
+        return bookingService.createBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto patchBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
                                    @PathVariable Long bookingId,
@@ -34,37 +68,84 @@ public class BookingController {
         return bookingService.patchBookingStatus(userId, bookingId, isApproved);
     }
 
+    @PatchMapping("/status")
+    public Collection<BookingStatusResultDto> patchBookings(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                            @RequestBody List<BookingStatusPatchDto> patches) {
+        return bookingService.patchBookingStatuses(userId, patches);
+    }
+
     @GetMapping("/{bookingId}")
-    public BookingDto getBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                 @PathVariable Long bookingId) {
-        return bookingService.getBooking(userId, bookingId);
+    public ResponseEntity<BookingDto> getBooking(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                 @PathVariable Long bookingId,
+                                                 WebRequest request) {
+        return ETags.toResponse(bookingService.getTaggedBooking(userId, bookingId), request);
     }
 
     @GetMapping
-    public Collection<BookingDto> getBookingsOfUser(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @RequestParam(name = "size", defaultValue = "20") Integer size) {
+    public ResponseEntity<Collection<BookingDto>> getBookingsOfUser(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new UnknownStateException(state));
-        return bookingService.getBookingsOfUser(userId, bookingState, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingsOfUser(userId, bookingState, from, size));
+        }
+        return CursorPage.toResponse(
+                bookingService.getBookingsOfUser(userId, bookingState, PageCursor.decode(cursor), size),
+                size,
+                (BookingDto booking) -> new PageCursor(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public Collection<BookingDto> getBookingsOfUserItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                                         @RequestParam(name = "state",
-                                                                 defaultValue = "ALL") String state,
-                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "20") Integer size) {
+    public ResponseEntity<Collection<BookingDto>> getBookingsOfUserItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new UnknownStateException(state));
 
-        return bookingService.getBookingsOfUserItems(userId, bookingState, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingsOfUserItems(userId, bookingState, from, size));
+        }
+        return CursorPage.toResponse(
+                bookingService.getBookingsOfUserItems(userId, bookingState, PageCursor.decode(cursor), size),
+                size,
+                (BookingDto booking) -> new PageCursor(booking.getStart(), booking.getId()));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfUserItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId) {
+        userService.getUser(userId);
+        StreamingResponseBody body = out -> bookingService.exportBookingsOfUserItems(userId, booking -> {
+            try {
+                exportWriter.writeValue(out, booking);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/events")
+    public SseEmitter subscribeToBookingEvents(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                               @RequestHeader(name = "Last-Event-ID", required = false)
+                                               Long lastEventId) {
+        userService.getUser(userId);
+        return bookingEventBroker.subscribe(userId, lastEventId);
     }
 }
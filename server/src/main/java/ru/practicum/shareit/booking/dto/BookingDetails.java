@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class BookingDetails {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private boolean itemAvailable;
+    private Long itemRequestId;
+    private Long itemOwnerId;
+    private Long bookerId;
+    private String bookerName;
+    private String bookerEmail;
+    private long version;
+    private long itemVersion;
+    private long bookerVersion;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingEventDto {
+    private Long id;
+    private Long bookingId;
+    private Long itemId;
+    private Long ownerId;
+    private Long bookerId;
+    private BookingStatus status;
+    private LocalDateTime created;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public interface BookingItemView {
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    Long getBookerId();
+
+    BookingStatus getStatus();
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+public enum BookingStatusOutcome {
+    UPDATED,
+    FAILED,
+    CONFLICT
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+import ru.practicum.shareit.booking.utils.BookingMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+@Slf4j
+@Component
+public class BookingEventBroker {
+    public static final String EVENT_NAME = "booking";
+    private static final int REPLAY_LIMIT = 100;
+
+    private final BookingEventStorage bookingEventStorage;
+    private final long emitterTimeout;
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingEventBroker(BookingEventStorage bookingEventStorage,
+                              @Value("${shareit.bookings.events.emitter-timeout:1800000}") long emitterTimeout,
+                              MeterRegistry meterRegistry) {
+        this.bookingEventStorage = bookingEventStorage;
+        this.emitterTimeout = emitterTimeout;
+        Gauge.builder("shareit.bookings.events.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open booking event streams")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscription subscription = new Subscription(userId, emitter, lastEventId);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        subscribers.compute(userId, (id, subscriptions) -> {
+            Set<Subscription> result = subscriptions == null ? new CopyOnWriteArraySet<>() : subscriptions;
+            result.add(subscription);
+            return result;
+        });
+        if (lastEventId != null) {
+            replay(subscription, lastEventId);
+        }
+        subscription.goLive();
+        return emitter;
+    }
+
+    public void publish(BookingEventDto event) {
+        for (Long userId : List.of(event.getOwnerId(), event.getBookerId())) {
+            Set<Subscription> subscriptions = subscribers.get(userId);
+            if (subscriptions != null) {
+                subscriptions.forEach(subscription -> subscription.offer(event));
+            }
+        }
+    }
+
+    public void heartbeat() {
+        subscribers.values().forEach(subscriptions -> subscriptions.forEach(Subscription::ping));
+    }
+
+    private void replay(Subscription subscription, long lastEventId) {
+        long after = lastEventId;
+        List<BookingEvent> events;
+        do {
+            events = bookingEventStorage.findAllByUserAfter(subscription.userId, after,
+                    PageRequest.of(0, REPLAY_LIMIT));
+            for (BookingEvent event : events) {
+                if (!subscription.replay(BookingMapper.toBookingEventDto(event))) {
+                    return;
+                }
+                after = event.getSequenceNumber();
+            }
+        } while (events.size() == REPLAY_LIMIT);
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscribers.computeIfPresent(subscription.userId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final List<BookingEventDto> pending = new ArrayList<>();
+        private long lastSent;
+        private boolean live;
+        private boolean closed;
+
+        Subscription(Long userId, SseEmitter emitter, Long lastEventId) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastSent = lastEventId != null ? lastEventId : 0;
+        }
+
+        synchronized void offer(BookingEventDto event) {
+            if (live) {
+                send(event);
+            } else {
+                pending.add(event);
+            }
+        }
+
+        synchronized boolean replay(BookingEventDto event) {
+            return send(event);
+        }
+
+        synchronized void goLive() {
+            pending.forEach(this::send);
+            pending.clear();
+            live = true;
+        }
+
+        synchronized void ping() {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                drop(e);
+            }
+        }
+
+        private boolean send(BookingEventDto event) {
+            if (closed || event.getId() <= lastSent) {
+                return !closed;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getId()))
+                        .name(EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+                lastSent = event.getId();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                drop(e);
+                return false;
+            }
+        }
+
+        private void drop(Exception e) {
+            log.debug("Отключен поток событий пользователя {}: {}", userId, e.getMessage());
+            closed = true;
+            unsubscribe(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventCursor;
+import ru.practicum.shareit.booking.storage.BookingEventCursorStorage;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.events.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingEventDispatcher {
+    private static final int BATCH_SIZE = 500;
+
+    private final BookingEventStorage bookingEventStorage;
+    private final BookingEventCursorStorage cursorStorage;
+    private final int retentionHours;
+
+    @Autowired
+    public BookingEventDispatcher(BookingEventStorage bookingEventStorage,
+                                  BookingEventCursorStorage cursorStorage,
+                                  @Value("${shareit.bookings.events.retention-hours:24}") int retentionHours) {
+        this.bookingEventStorage = bookingEventStorage;
+        this.cursorStorage = cursorStorage;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.events.poll-delay:500}")
+    @Transactional
+    public void dispatch() {
+        if (!bookingEventStorage.existsByDispatchedFalse()) {
+            return;
+        }
+        BookingEventCursor cursor = cursorStorage.findLockedById(BookingEventCursor.ID).orElseThrow(
+                () -> new IllegalStateException("Не найден курсор событий бронирований")
+        );
+        List<BookingEvent> events = bookingEventStorage.findAllByDispatchedFalseOrderByIdAsc(
+                PageRequest.of(0, BATCH_SIZE));
+        long sequenceNumber = cursor.getLastSequenceNumber();
+        for (BookingEvent event : events) {
+            event.setSequenceNumber(++sequenceNumber);
+            event.setDispatched(true);
+        }
+        cursor.setLastSequenceNumber(sequenceNumber);
+    }
+
+    @Scheduled(cron = "${shareit.bookings.events.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purge() {
+        int deleted = bookingEventStorage.deleteDispatchedBefore(LocalDateTime.now().minusHours(retentionHours));
+        log.info("Удалено доставленных событий бронирований: {}", deleted);
+    }
+}
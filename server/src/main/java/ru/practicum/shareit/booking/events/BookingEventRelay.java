@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventCursor;
+import ru.practicum.shareit.booking.storage.BookingEventCursorStorage;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+import ru.practicum.shareit.booking.utils.BookingMapper;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.events.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingEventRelay {
+    private static final int BATCH_SIZE = 500;
+
+    private final BookingEventStorage bookingEventStorage;
+    private final BookingEventCursorStorage cursorStorage;
+    private final BookingEventBroker broker;
+    private final BookingAvailabilityEngine availability;
+    private volatile long position;
+
+    @Autowired
+    public BookingEventRelay(BookingEventStorage bookingEventStorage,
+                             BookingEventCursorStorage cursorStorage,
+                             BookingEventBroker broker,
+                             BookingAvailabilityEngine availability) {
+        this.bookingEventStorage = bookingEventStorage;
+        this.cursorStorage = cursorStorage;
+        this.broker = broker;
+        this.availability = availability;
+    }
+
+    @PostConstruct
+    public void start() {
+        position = cursorStorage.findById(BookingEventCursor.ID)
+                .map(BookingEventCursor::getLastSequenceNumber)
+                .orElse(0L);
+        log.info("События бронирований читаются после номера {}", position);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.events.poll-delay:500}")
+    public void poll() {
+        List<BookingEvent> events;
+        do {
+            events = bookingEventStorage.findAllBySequenceNumberGreaterThanOrderBySequenceNumberAsc(position,
+                    PageRequest.of(0, BATCH_SIZE));
+            availability.refresh(events.stream()
+                    .map(BookingEvent::getBookingId)
+                    .collect(Collectors.toSet()));
+            for (BookingEvent event : events) {
+                broker.publish(BookingMapper.toBookingEventDto(event));
+                position = event.getSequenceNumber();
+            }
+        } while (events.size() == BATCH_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.events.heartbeat:15000}")
+    public void heartbeat() {
+        broker.heartbeat();
+    }
+}
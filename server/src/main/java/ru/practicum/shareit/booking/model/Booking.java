@@ -13,24 +13,45 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 public class Booking {
+    public static final String DETAIL_GRAPH = "Booking.detail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id", nullable = false)
     private Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
     @Column(name = "start_time", nullable = false)
     private LocalDateTime start;
     @Column(name = "end_time", nullable = false)
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User booker;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    @Version
+    @Column(nullable = false)
+    private long version;
 
+    public Booking(Long id, Item item, LocalDateTime start, LocalDateTime end, User booker, BookingStatus status) {
+        this.id = id;
+        this.item = item;
+        this.start = start;
+        this.end = end;
+        this.booker = booker;
+        this.status = status;
+    }
 
     public Booking(Item item, LocalDateTime start, LocalDateTime end, User booker, BookingStatus status) {
         this.item = item;
@@ -39,4 +60,11 @@ public class Booking {
         this.booker = booker;
         this.status = status;
     }
+
+    @PrePersist
+    private void fillOwner() {
+        if (owner == null && item != null) {
+            owner = item.getOwner();
+        }
+    }
 }
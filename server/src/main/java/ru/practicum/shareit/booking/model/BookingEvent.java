@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_events")
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", sequenceName = "booking_events_seq", allocationSize = 50)
+    @Column(name = "event_id", nullable = false)
+    private Long id;
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+    @Column(name = "created_time", nullable = false)
+    private LocalDateTime created;
+    @Column(nullable = false)
+    private boolean dispatched;
+    @Column(name = "sequence_number")
+    private Long sequenceNumber;
+
+    public BookingEvent(Long bookingId, Long itemId, Long ownerId, Long bookerId, BookingStatus status) {
+        this.bookingId = bookingId;
+        this.itemId = itemId;
+        this.ownerId = ownerId;
+        this.bookerId = bookerId;
+        this.status = status;
+        this.created = LocalDateTime.now();
+    }
+}
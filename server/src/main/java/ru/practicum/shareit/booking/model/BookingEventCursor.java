@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_event_cursor")
+public class BookingEventCursor {
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "cursor_id", nullable = false)
+    private Integer id;
+    @Column(name = "last_sequence_number", nullable = false)
+    private Long lastSequenceNumber;
+}
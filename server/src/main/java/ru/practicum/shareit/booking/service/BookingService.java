@@ -2,18 +2,36 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.utils.BookingState;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(Long userId, BookingPostDto bookingDto);
 
+    Collection<BookingDto> createBookings(Long userId, List<BookingPostDto> bookingDtos);
+
     BookingDto patchBookingStatus(Long userId, Long bookingId, Boolean isApproved);
 
+    Collection<BookingStatusResultDto> patchBookingStatuses(Long userId, Collection<BookingStatusPatchDto> patches);
+
     BookingDto getBooking(Long userId, Long bookingId);
 
+    Tagged<BookingDto> getTaggedBooking(Long userId, Long bookingId);
+
     Collection<BookingDto> getBookingsOfUser(Long userId, BookingState state, Integer from, Integer size);
 
     Collection<BookingDto> getBookingsOfUserItems(Long userId, BookingState state, Integer from, Integer size);
+
+    Collection<BookingDto> getBookingsOfUser(Long userId, BookingState state, PageCursor after, Integer size);
+
+    Collection<BookingDto> getBookingsOfUserItems(Long userId, BookingState state, PageCursor after, Integer size);
+
+    void exportBookingsOfUserItems(Long userId, Consumer<BookingDto> sink);
 }
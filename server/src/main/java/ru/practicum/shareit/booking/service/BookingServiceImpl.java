@@ -1,16 +1,26 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingDetails;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.booking.utils.BookingMapper;
 import ru.practicum.shareit.booking.utils.BookingState;
@@ -18,30 +28,54 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
 import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.utils.exceptions.UnavailableItemException;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
     BookingStorage bookingStorage;
+    BookingEventStorage bookingEventStorage;
     UserStorage userStorage;
     ItemStorage itemStorage;
+    BookingAvailabilityEngine availability;
+    Counter statusUpdates;
+    Counter statusConflicts;
+    Counter overlapRejections;
 
     @Autowired
     public BookingServiceImpl(BookingStorage bookingStorage,
+                              BookingEventStorage bookingEventStorage,
                               UserStorage userStorage,
-                              ItemStorage itemStorage) {
+                              ItemStorage itemStorage,
+                              BookingAvailabilityEngine availability,
+                              MeterRegistry meterRegistry) {
         this.bookingStorage = bookingStorage;
+        this.bookingEventStorage = bookingEventStorage;
         this.userStorage = userStorage;
         this.itemStorage = itemStorage;
+        this.availability = availability;
+        this.statusUpdates = statusCounter(meterRegistry, "updated");
+        this.statusConflicts = statusCounter(meterRegistry, "conflict");
+        this.overlapRejections = statusCounter(meterRegistry, "overlap");
     }
 
     @Override
@@ -50,7 +84,7 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemStorage.findById(bookingDto.getItemId()).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден предмет с id " + bookingDto.getItemId())
         );
-        User booker = userStorage.findById(userId).orElseThrow(
+        User booker = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         if (item.getOwner().getId().equals(booker.getId())) {
@@ -59,13 +93,53 @@ public class BookingServiceImpl implements BookingService {
         if (!item.isAvailable()) {
             throw new UnavailableItemException("Предмет с id " + item.getId() + " не доступен для аренды");
         }
-        return BookingMapper.toBookingDto(bookingStorage.save(BookingMapper.toBooking(bookingDto, item, booker)));
+        availability.requireAvailable(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+        Booking booking = bookingStorage.save(BookingMapper.toBooking(bookingDto, item, booker));
+        bookingEventStorage.save(BookingMapper.toBookingEvent(booking));
+        availability.booked(booking);
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public Collection<BookingDto> createBookings(Long userId, List<BookingPostDto> bookingDtos) {
+        User booker = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        Map<Long, Item> items = new HashMap<>();
+        itemStorage.findAllById(bookingDtos.stream()
+                        .map(BookingPostDto::getItemId)
+                        .collect(Collectors.toSet()))
+                .forEach(item -> items.put(item.getId(), item));
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingPostDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new ObjectNotFoundException("Не найден предмет с id " + bookingDto.getItemId());
+            }
+            if (item.getOwner().getId().equals(booker.getId())) {
+                throw new ObjectNotFoundException("Id пользователя и владельца вещи совпадают");
+            }
+            if (!item.isAvailable()) {
+                throw new UnavailableItemException("Предмет с id " + item.getId() + " не доступен для аренды");
+            }
+            availability.requireAvailable(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+            bookings.add(BookingMapper.toBooking(bookingDto, item, booker));
+        }
+        List<Booking> saved = bookingStorage.saveAll(bookings);
+        bookingEventStorage.saveAll(saved.stream()
+                .map(BookingMapper::toBookingEvent)
+                .collect(Collectors.toList()));
+        saved.forEach(availability::booked);
+        return saved.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
     public BookingDto patchBookingStatus(Long userId, Long bookingId, Boolean isApproved) {
-        Booking booking = bookingStorage.findById(bookingId).orElseThrow(
+        Booking booking = bookingStorage.findWithDetailById(bookingId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найдена аренда с id " + bookingId)
         );
         Item item = booking.getItem();
@@ -75,34 +149,179 @@ public class BookingServiceImpl implements BookingService {
         if (!booking.getStatus().equals(BookingStatus.WAITING)) {
             throw new UnsupportedOperationException("Попытка изменить статус отличный от WAITING");
         }
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         if (isApproved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            try {
+                availability.reserve(booking);
+            } catch (BookingOverlapException e) {
+                overlapRejections.increment();
+                throw e;
+            }
+        }
+        int updated;
+        try {
+            updated = bookingStorage.updateStatus(bookingId, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            if (availability.isOverlapViolation(e)) {
+                overlapRejections.increment();
+            }
+            throw availability.translate(e, booking);
+        }
+        if (updated == 0) {
+            statusConflicts.increment();
+            throw new UnsupportedOperationException("Попытка изменить статус отличный от WAITING");
+        }
+        if (!isApproved) {
+            availability.released(booking);
+        }
+        statusUpdates.increment();
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        bookingEventStorage.save(BookingMapper.toBookingEvent(booking));
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public Collection<BookingStatusResultDto> patchBookingStatuses(Long userId,
+                                                                 Collection<BookingStatusPatchDto> patches) {
+        Set<Long> bookingIds = patches.stream()
+                .map(BookingStatusPatchDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, BookingDetails> bookings = new HashMap<>();
+        if (!bookingIds.isEmpty()) {
+            bookingStorage.findDetailsByIdIn(bookingIds).forEach(booking -> bookings.put(booking.getId(), booking));
+        }
+        List<BookingStatusResultDto> results = new ArrayList<>();
+        Map<Long, BookingStatusResultDto> pending = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        List<BookingDetails> approvals = new ArrayList<>();
+        List<BookingDetails> rejections = new ArrayList<>();
+        for (BookingStatusPatchDto patch : patches) {
+            Long bookingId = patch.getBookingId();
+            BookingDetails booking = bookings.get(bookingId);
+            BookingStatusResultDto result = new BookingStatusResultDto(bookingId, null,
+                    BookingStatusOutcome.FAILED, null);
+            results.add(result);
+            if (bookingId == null || patch.getApproved() == null) {
+                result.setError("Не указан id аренды или решение");
+            } else if (!seen.add(bookingId)) {
+                result.setError("Повторное изменение аренды с id " + bookingId);
+            } else if (booking == null || !booking.getItemOwnerId().equals(userId)) {
+                result.setError("Не найдена аренда с id " + bookingId);
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                result.setStatus(booking.getStatus());
+                result.setOutcome(BookingStatusOutcome.CONFLICT);
+                result.setError("Попытка изменить статус отличный от WAITING");
+            } else if (patch.getApproved()) {
+                result.setStatus(BookingStatus.APPROVED);
+                result.setOutcome(BookingStatusOutcome.UPDATED);
+                pending.put(bookingId, result);
+                approvals.add(booking);
+            } else {
+                result.setStatus(BookingStatus.REJECTED);
+                result.setOutcome(BookingStatusOutcome.UPDATED);
+                pending.put(bookingId, result);
+                rejections.add(booking);
+            }
+        }
+        Set<Long> overlapping = availability.reserveAll(approvals);
+        overlapRejections.increment(overlapping.size());
+        approvals.removeIf(booking -> overlapping.contains(booking.getId()));
+        for (Long bookingId : overlapping) {
+            BookingStatusResultDto result = pending.get(bookingId);
+            result.setStatus(BookingStatus.WAITING);
+            result.setOutcome(BookingStatusOutcome.CONFLICT);
+            result.setError("Пересечение с подтвержденным бронированием");
+        }
+        Map<Long, BookingStatus> changed = lockChanged(approvals, rejections);
+        statusConflicts.increment(changed.size());
+        approvals.removeIf(booking -> changed.containsKey(booking.getId()));
+        rejections.removeIf(booking -> changed.containsKey(booking.getId()));
+        changed.forEach((Long bookingId, BookingStatus status) -> {
+            BookingStatusResultDto result = pending.get(bookingId);
+            result.setStatus(status);
+            result.setOutcome(BookingStatusOutcome.CONFLICT);
+            result.setError("Статус аренды с id " + bookingId + " изменен другим запросом");
+        });
+        applyStatus(approvals, BookingStatus.APPROVED);
+        applyStatus(rejections, BookingStatus.REJECTED);
+        availability.approvedAll(approvals);
+        availability.releasedAll(rejections);
+        List<BookingEvent> events = new ArrayList<>();
+        approvals.forEach(booking -> events.add(BookingMapper.toBookingEvent(booking, BookingStatus.APPROVED)));
+        rejections.forEach(booking -> events.add(BookingMapper.toBookingEvent(booking, BookingStatus.REJECTED)));
+        bookingEventStorage.saveAll(events);
+        statusUpdates.increment(approvals.size() + rejections.size());
+        return results;
+    }
+
+    private Map<Long, BookingStatus> lockChanged(Collection<BookingDetails> approvals,
+                                                 Collection<BookingDetails> rejections) {
+        Map<Long, BookingStatus> changed = new HashMap<>();
+        if (approvals.isEmpty() && rejections.isEmpty()) {
+            return changed;
+        }
+        Set<Long> bookingIds = new HashSet<>();
+        approvals.forEach(booking -> bookingIds.add(booking.getId()));
+        rejections.forEach(booking -> bookingIds.add(booking.getId()));
+        bookingIds.forEach(bookingId -> changed.put(bookingId, null));
+        for (Booking booking : bookingStorage.findLockedByIdInOrderByIdAsc(bookingIds)) {
+            if (booking.getStatus().equals(BookingStatus.WAITING)) {
+                changed.remove(booking.getId());
+            } else {
+                changed.put(booking.getId(), booking.getStatus());
+            }
+        }
+        return changed;
+    }
+
+    private void applyStatus(Collection<BookingDetails> bookings, BookingStatus status) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        List<Long> bookingIds = bookings.stream()
+                .map(BookingDetails::getId)
+                .collect(Collectors.toList());
+        try {
+            bookingStorage.updateStatusIn(bookingIds, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            if (availability.isOverlapViolation(e)) {
+                overlapRejections.increment();
+            }
+            throw availability.translate(e, bookingIds);
         }
-        return BookingMapper.toBookingDto(bookingStorage.save(booking));
     }
 
     @Override
     public BookingDto getBooking(Long userId, Long bookingId) {
-        Booking booking = bookingStorage.findById(bookingId).orElseThrow(
+        return getTaggedBooking(userId, bookingId).getBody();
+    }
+
+    @Override
+    public Tagged<BookingDto> getTaggedBooking(Long userId, Long bookingId) {
+        BookingDetails booking = bookingStorage.findDetailsById(bookingId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найдена аренда с id " + bookingId)
         );
-        Item item = booking.getItem();
-        if (!item.getOwner().getId().equals(userId) && !booking.getBooker().getId().equals(userId)) {
+        if (!booking.getItemOwnerId().equals(userId) && !booking.getBookerId().equals(userId)) {
             throw new ObjectNotFoundException("Id пользователя(" + userId
                     + ") не совпадает с id владельца или арендатора");
         }
-        return BookingMapper.toBookingDto(booking);
+        return Tagged.personalOf(() -> BookingMapper.toBookingDto(booking),
+                booking.getId(),
+                booking.getVersion(),
+                booking.getItemVersion(),
+                booking.getBookerVersion());
     }
 
     @Override
     public Collection<BookingDto> getBookingsOfUser(Long userId, BookingState state, Integer from, Integer size) {
-        User user = userStorage.findById(userId).orElseThrow(
+        User user = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         Pageable pageable = PageRequest.of(from / size, size);
-        Page<Booking> bookings;
+        Slice<BookingDetails> bookings;
         switch (state) {
             case ALL:
                 bookings = bookingStorage.findAllByBookerOrderByStartDesc(user, pageable);
@@ -131,7 +350,7 @@ public class BookingServiceImpl implements BookingService {
                         pageable);
                 break;
             default:
-                bookings = new PageImpl<>(List.of());
+                bookings = new SliceImpl<>(List.of());
         }
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
@@ -140,11 +359,11 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public Collection<BookingDto> getBookingsOfUserItems(Long userId, BookingState state, Integer from, Integer size) {
-        User owner = userStorage.findById(userId).orElseThrow(
+        User owner = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         Pageable pageable = PageRequest.of(from / size, size);
-        Page<Booking> bookings;
+        Slice<BookingDetails> bookings;
         switch (state) {
             case ALL:
                 bookings = bookingStorage.findAllByItemOwnerIsOrderByStartDesc(owner, pageable);
@@ -173,10 +392,140 @@ public class BookingServiceImpl implements BookingService {
                         pageable);
                 break;
             default:
-                bookings = new PageImpl<>(List.of());
+                bookings = new SliceImpl<>(List.of());
+        }
+        return bookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Collection<BookingDto> getBookingsOfUser(Long userId, BookingState state, PageCursor after, Integer size) {
+        User user = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        PageCursor cursor = after == null ? PageCursor.first() : after.requireTime();
+        Pageable pageable = PageRequest.of(0, size);
+        List<BookingDetails> bookings;
+        switch (state) {
+            case ALL:
+                bookings = bookingStorage.findAllByBookerAfter(user, cursor.getTime(), cursor.getId(), pageable);
+                break;
+            case CURRENT:
+                bookings = bookingStorage.findCurrentByBookerAfter(user,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case PAST:
+                bookings = bookingStorage.findPastByBookerAfter(user,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case FUTURE:
+                bookings = bookingStorage.findFutureByBookerAfter(user,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case WAITING:
+                bookings = bookingStorage.findAllByBookerAndStatusAfter(user,
+                        BookingStatus.WAITING,
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case REJECTED:
+                bookings = bookingStorage.findAllByBookerAndStatusAfter(user,
+                        BookingStatus.REJECTED,
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            default:
+                bookings = List.of();
         }
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public Collection<BookingDto> getBookingsOfUserItems(Long userId,
+                                                         BookingState state,
+                                                         PageCursor after,
+                                                         Integer size) {
+        User owner = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        PageCursor cursor = after == null ? PageCursor.first() : after.requireTime();
+        Pageable pageable = PageRequest.of(0, size);
+        List<BookingDetails> bookings;
+        switch (state) {
+            case ALL:
+                bookings = bookingStorage.findAllByOwnerAfter(owner, cursor.getTime(), cursor.getId(), pageable);
+                break;
+            case CURRENT:
+                bookings = bookingStorage.findCurrentByOwnerAfter(owner,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case PAST:
+                bookings = bookingStorage.findPastByOwnerAfter(owner,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case FUTURE:
+                bookings = bookingStorage.findFutureByOwnerAfter(owner,
+                        LocalDateTime.now(),
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case WAITING:
+                bookings = bookingStorage.findAllByOwnerAndStatusAfter(owner,
+                        BookingStatus.WAITING,
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            case REJECTED:
+                bookings = bookingStorage.findAllByOwnerAndStatusAfter(owner,
+                        BookingStatus.REJECTED,
+                        cursor.getTime(),
+                        cursor.getId(),
+                        pageable);
+                break;
+            default:
+                bookings = List.of();
+        }
+        return bookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportBookingsOfUserItems(Long userId, Consumer<BookingDto> sink) {
+        User owner = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        try (Stream<BookingDetails> bookings = bookingStorage.streamAllByOwner(owner)) {
+            bookings.map(BookingMapper::toBookingDto).forEach(sink);
+        }
+    }
+
+    private static Counter statusCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("shareit.bookings.status.changes")
+                .description("Booking status transitions by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface BookingArchiveStorage {
+    boolean existsPastBooking(Long bookerId, Long itemId, LocalDateTime now);
+
+    boolean tryLockArchive(LocalDateTime now, LocalDateTime until);
+
+    void preparePartitions(LocalDate from, int months);
+
+    int archiveEndedBefore(LocalDate cutoff);
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Slf4j
+public class BookingArchiveStorageImpl implements BookingArchiveStorage {
+    private static final String PARTITION_PREFIX = "bookings_";
+    private static final String DEFAULT_PARTITION = "bookings_default";
+    private static final String ARCHIVE_LOCK = "bookings_archive";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String ARCHIVE_COLUMNS = "booking_id, item_id, user_id, status, start_time, end_time, " +
+            "version, owner_id";
+
+    private final EntityManager entityManager;
+    private final boolean partitioned;
+
+    public BookingArchiveStorageImpl(EntityManager entityManager,
+                                     @Value("${shareit.bookings.partitioned:false}") boolean partitioned) {
+        this.entityManager = entityManager;
+        this.partitioned = partitioned;
+    }
+
+    @Override
+    public boolean existsPastBooking(Long bookerId, Long itemId, LocalDateTime now) {
+        Number found = (Number) entityManager.createNativeQuery("SELECT CASE WHEN " +
+                        "EXISTS (SELECT 1 FROM bookings b " +
+                        "WHERE b.user_id = :bookerId AND b.item_id = :itemId AND b.end_time < :now) " +
+                        "OR EXISTS (SELECT 1 FROM bookings_archive a " +
+                        "WHERE a.user_id = :bookerId AND a.item_id = :itemId AND a.end_time < :now) " +
+                        "THEN 1 ELSE 0 END")
+                .setParameter("bookerId", bookerId)
+                .setParameter("itemId", itemId)
+                .setParameter("now", now)
+                .getSingleResult();
+        return found.intValue() == 1;
+    }
+
+    @Override
+    public boolean tryLockArchive(LocalDateTime now, LocalDateTime until) {
+        return entityManager.createNativeQuery("UPDATE scheduler_locks SET locked_until = :until " +
+                        "WHERE lock_name = :name AND locked_until <= :now")
+                .setParameter("until", until)
+                .setParameter("name", ARCHIVE_LOCK)
+                .setParameter("now", now)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public void preparePartitions(LocalDate from, int months) {
+        if (!partitioned) {
+            return;
+        }
+        YearMonth month = YearMonth.from(from);
+        for (int i = 0; i <= months; i++) {
+            entityManager.createNativeQuery("SELECT CAST(create_bookings_partition(CAST(:month AS date)) AS text)")
+                    .setParameter("month", month.plusMonths(i).atDay(1))
+                    .getSingleResult();
+        }
+    }
+
+    @Override
+    public int archiveEndedBefore(LocalDate cutoff) {
+        if (partitioned) {
+            return archivePartitions(YearMonth.from(cutoff));
+        }
+        LocalDateTime end = cutoff.atStartOfDay();
+        entityManager.createNativeQuery("INSERT INTO bookings_archive (" + ARCHIVE_COLUMNS + ") " +
+                        "SELECT " + ARCHIVE_COLUMNS + " FROM bookings WHERE end_time < :cutoff")
+                .setParameter("cutoff", end)
+                .executeUpdate();
+        return entityManager.createNativeQuery("DELETE FROM bookings WHERE end_time < :cutoff")
+                .setParameter("cutoff", end)
+                .executeUpdate();
+    }
+
+    private int archivePartitions(YearMonth cutoff) {
+        @SuppressWarnings("unchecked")
+        List<String> partitions = entityManager.createNativeQuery("SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'bookings' " +
+                        "ORDER BY c.relname")
+                .getResultList();
+        int archived = archiveDefaultPartition(cutoff);
+        for (String partition : partitions) {
+            YearMonth month = partitionMonth(partition);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+            Number unfinished = (Number) entityManager.createNativeQuery("SELECT count(*) FROM " + partition +
+                            " WHERE end_time >= CAST(:cutoff AS date)")
+                    .setParameter("cutoff", cutoff.atDay(1))
+                    .getSingleResult();
+            if (unfinished.longValue() > 0) {
+                log.info("Секция {} не архивирована, незавершенных бронирований: {}", partition, unfinished);
+                continue;
+            }
+            entityManager.createNativeQuery("ALTER TABLE bookings DETACH PARTITION " + partition).executeUpdate();
+            int moved = entityManager.createNativeQuery("INSERT INTO bookings_archive (" + ARCHIVE_COLUMNS + ") " +
+                            "SELECT " + ARCHIVE_COLUMNS + " FROM " + partition)
+                    .executeUpdate();
+            entityManager.createNativeQuery("DROP TABLE " + partition).executeUpdate();
+            log.info("Секция {} перенесена в архив, бронирований: {}", partition, moved);
+            archived += moved;
+        }
+        return archived;
+    }
+
+    private int archiveDefaultPartition(YearMonth cutoff) {
+        int moved = entityManager.createNativeQuery("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                        " WHERE end_time < CAST(:cutoff AS date) RETURNING " + ARCHIVE_COLUMNS + ") " +
+                        "INSERT INTO bookings_archive (" + ARCHIVE_COLUMNS + ") " +
+                        "SELECT " + ARCHIVE_COLUMNS + " FROM moved")
+                .setParameter("cutoff", cutoff.atDay(1))
+                .executeUpdate();
+        if (moved > 0) {
+            log.info("Из секции {} перенесено в архив бронирований: {}", DEFAULT_PARTITION, moved);
+        }
+        return moved;
+    }
+
+    private YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingEventCursor;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface BookingEventCursorStorage extends JpaRepository<BookingEventCursor, Integer> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BookingEventCursor> findLockedById(Integer id);
+}
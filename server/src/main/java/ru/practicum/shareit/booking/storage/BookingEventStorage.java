@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BookingEventStorage extends JpaRepository<BookingEvent, Long> {
+    boolean existsByDispatchedFalse();
+
+    List<BookingEvent> findAllByDispatchedFalseOrderByIdAsc(Pageable pageable);
+
+    List<BookingEvent> findAllBySequenceNumberGreaterThanOrderBySequenceNumberAsc(Long sequenceNumber,
+                                                                                 Pageable pageable);
+
+    @Query("select e from BookingEvent e " +
+            "where (e.ownerId = :user or e.bookerId = :user) " +
+            "and e.sequenceNumber > :after " +
+            "order by e.sequenceNumber")
+    List<BookingEvent> findAllByUserAfter(@Param("user") Long userId,
+                                          @Param("after") Long sequenceNumber,
+                                          Pageable pageable);
+
+    @Modifying
+    @Query("delete from BookingEvent e where e.dispatched = true and e.created < ?1")
+    int deleteDispatchedBefore(LocalDateTime created);
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingOverlapStorage {
+    List<Booking> findApprovedOverlapping(Collection<BookingDetails> bookings);
+}
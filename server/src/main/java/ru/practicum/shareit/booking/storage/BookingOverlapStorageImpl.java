@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+
+public class BookingOverlapStorageImpl implements BookingOverlapStorage {
+    private final EntityManager entityManager;
+
+    public BookingOverlapStorageImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Booking> findApprovedOverlapping(Collection<BookingDetails> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Predicate[] intervals = bookings.stream()
+                .map((BookingDetails other) -> builder.and(
+                        builder.equal(booking.get("item").get("id"), other.getItemId()),
+                        builder.lessThan(booking.get("start"), other.getEnd()),
+                        builder.greaterThan(booking.get("end"), other.getStart())))
+                .toArray(Predicate[]::new);
+        query.select(booking)
+                .where(builder.equal(booking.get("status"), BookingStatus.APPROVED), builder.or(intervals));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
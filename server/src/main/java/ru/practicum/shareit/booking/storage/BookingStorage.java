@@ -1,68 +1,294 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.dto.BookingItemView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface BookingStorage extends JpaRepository<Booking, Long> {
-    Page<Booking> findAllByBookerOrderByStartDesc(User booker, Pageable pageable);
+public interface BookingStorage extends JpaRepository<Booking, Long>, BookingArchiveStorage,
+        BookingOverlapStorage {
+    String BOOKING_DETAILS = "select new ru.practicum.shareit.booking.dto.BookingDetails(" +
+            "b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.description, i.isAvailable, i.request.id, i.owner.id, " +
+            "u.id, u.name, u.email, " +
+            "b.version, i.version, u.version) " +
+            "from Booking b " +
+            "join b.item i " +
+            "join b.booker u ";
+    String SEEK_BY_START = "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc";
+    String EXPORT_FETCH_SIZE = "500";
 
-    Page<Booking> findAllByBookerAndStatusOrderByStartDesc(User booker, BookingStatus status, Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.booker = ?1 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByBookerOrderByStartDesc(User booker, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker,
-                                                              LocalDateTime localDateTime,
-                                                              Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.booker = ?1 " +
+            "and b.status = ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByBookerAndStatusOrderByStartDesc(User booker, BookingStatus status, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndStartAfterOrderByStartDesc(User booker,
-                                                               LocalDateTime localDateTime,
-                                                               Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.booker = ?1 " +
+            "and b.start < ?2 " +
+            "and b.end < ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByBookerAndEndBeforeOrderByStartDesc(User booker,
+                                                                      LocalDateTime localDateTime,
+                                                                      Pageable pageable);
 
-    @Query("select b from Booking b " +
+    @Query(BOOKING_DETAILS +
+            "where b.booker = ?1 " +
+            "and b.start > ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByBookerAndStartAfterOrderByStartDesc(User booker,
+                                                                       LocalDateTime localDateTime,
+                                                                       Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
             "where b.booker = ?1 " +
             "and b.start < ?2 " +
             "and b.end > ?2 " +
             "order by b.start desc")
-    Page<Booking> findBookingByBookerAndDate(User booker,
-                                             LocalDateTime localDateTime,
-                                             Pageable pageable);
+    Slice<BookingDetails> findBookingByBookerAndDate(User booker,
+                                                     LocalDateTime localDateTime,
+                                                     Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIsOrderByStartDesc(User owner, Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByItemOwnerIsOrderByStartDesc(User owner, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIsAndStatusOrderByStartDesc(User owner,
-                                                                BookingStatus status,
-                                                                Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
+            "and b.status = ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByItemOwnerIsAndStatusOrderByStartDesc(User owner,
+                                                                        BookingStatus status,
+                                                                        Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(User owner,
-                                                                   LocalDateTime localDateTime,
-                                                                   Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
+            "and b.start < ?2 " +
+            "and b.end < ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(User owner,
+                                                                           LocalDateTime localDateTime,
+                                                                           Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIsAndStartAfterOrderByStartDesc(User owner,
-                                                                    LocalDateTime localDateTime,
-                                                                    Pageable pageable);
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
+            "and b.start > ?2 " +
+            "order by b.start desc")
+    Slice<BookingDetails> findAllByItemOwnerIsAndStartAfterOrderByStartDesc(User owner,
+                                                                            LocalDateTime localDateTime,
+                                                                            Pageable pageable);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner = ?1 " +
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
             "and b.start < ?2 " +
             "and b.end > ?2 " +
             "order by b.start desc")
-    Page<Booking> findBookingByOwnerAndDate(User owner, LocalDateTime localDateTime, Pageable pageable);
+    Slice<BookingDetails> findBookingByOwnerAndDate(User owner, LocalDateTime localDateTime, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DETAILS +
+            "where b.owner = ?1 " +
+            "order by b.start desc, b.id desc")
+    Stream<BookingDetails> streamAllByOwner(User owner);
+
+    @Query(BOOKING_DETAILS +
+            "where b.booker = :booker " +
+            SEEK_BY_START)
+    List<BookingDetails> findAllByBookerAfter(@Param("booker") User booker,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
 
-    Collection<Booking> findAllByBookerAndItemAndEndBeforeOrderByStartDesc(User booker,
-                                                                           Item item,
-                                                                           LocalDateTime localDateTime);
+    @Query(BOOKING_DETAILS +
+            "where b.booker = :booker " +
+            "and b.status = :status " +
+            SEEK_BY_START)
+    List<BookingDetails> findAllByBookerAndStatusAfter(@Param("booker") User booker,
+                                                       @Param("status") BookingStatus status,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.booker = :booker " +
+            "and b.start < :now " +
+            "and b.end < :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findPastByBookerAfter(@Param("booker") User booker,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.booker = :booker " +
+            "and b.start > :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findFutureByBookerAfter(@Param("booker") User booker,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.booker = :booker " +
+            "and b.start < :now " +
+            "and b.end > :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findCurrentByBookerAfter(@Param("booker") User booker,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("start") LocalDateTime start,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.owner = :owner " +
+            SEEK_BY_START)
+    List<BookingDetails> findAllByOwnerAfter(@Param("owner") User owner,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.owner = :owner " +
+            "and b.status = :status " +
+            SEEK_BY_START)
+    List<BookingDetails> findAllByOwnerAndStatusAfter(@Param("owner") User owner,
+                                                      @Param("status") BookingStatus status,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.owner = :owner " +
+            "and b.start < :now " +
+            "and b.end < :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findPastByOwnerAfter(@Param("owner") User owner,
+                                              @Param("now") LocalDateTime now,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.owner = :owner " +
+            "and b.start > :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findFutureByOwnerAfter(@Param("owner") User owner,
+                                                @Param("now") LocalDateTime now,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.owner = :owner " +
+            "and b.start < :now " +
+            "and b.end > :now " +
+            SEEK_BY_START)
+    List<BookingDetails> findCurrentByOwnerAfter(@Param("owner") User owner,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query(BOOKING_DETAILS +
+            "where b.id = ?1")
+    Optional<BookingDetails> findDetailsById(Long bookingId);
+
+    @Query(BOOKING_DETAILS +
+            "where b.id in ?1")
+    List<BookingDetails> findDetailsByIdIn(Collection<Long> bookingIds);
+
+    @EntityGraph(Booking.DETAIL_GRAPH)
+    Optional<Booking> findWithDetailById(Long bookingId);
+
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status = :status " +
+            "and b.start < :end " +
+            "and b.end > :start " +
+            "and b.id <> :bookingId")
+    boolean existsOverlap(@Param("itemId") Long itemId,
+                          @Param("status") BookingStatus status,
+                          @Param("start") LocalDateTime start,
+                          @Param("end") LocalDateTime end,
+                          @Param("bookingId") Long bookingId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId " +
+            "and b.status = :expected")
+    int updateStatus(@Param("bookingId") Long bookingId,
+                     @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Booking> findLockedByIdInOrderByIdAsc(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :bookingIds " +
+            "and b.status = :expected")
+    int updateStatusIn(@Param("bookingIds") Collection<Long> bookingIds,
+                       @Param("expected") BookingStatus expected,
+                       @Param("status") BookingStatus status);
+
+    Slice<Booking> findAllByStatusInAndEndAfterOrderByIdAsc(Collection<BookingStatus> statuses,
+                                                            LocalDateTime end,
+                                                            Pageable pageable);
 
     Optional<Booking> findFirstByItemIsAndEndBeforeOrderByEndDesc(Item item, LocalDateTime localDateTime);
 
     Optional<Booking> findFirstByItemIsAndStartAfterOrderByStartAsc(Item item, LocalDateTime localDateTime);
+
+    @Query(value = "SELECT ranked.booking_id AS \"id\", " +
+            "ranked.item_id AS \"itemId\", " +
+            "CAST(ranked.start_time AS timestamp) AS \"startTime\", " +
+            "CAST(ranked.end_time AS timestamp) AS \"endTime\", " +
+            "ranked.user_id AS \"bookerId\", " +
+            "ranked.status AS \"status\" " +
+            "FROM (SELECT b.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY b.item_id, CASE WHEN b.end_time < :now THEN 0 ELSE 1 END " +
+            "ORDER BY CASE WHEN b.end_time < :now THEN b.end_time END DESC, b.start_time ASC" +
+            ") AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) " +
+            "AND (b.end_time < :now OR b.start_time > :now)) ranked " +
+            "WHERE ranked.rn = 1",
+            nativeQuery = true)
+    Collection<BookingItemView> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                        @Param("now") LocalDateTime now);
 }
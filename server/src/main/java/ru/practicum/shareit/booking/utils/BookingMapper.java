@@ -1,15 +1,23 @@
 package ru.practicum.shareit.booking.utils;
 
+import ru.practicum.shareit.booking.dto.BookingDetails;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingItemView;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.utils.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.utils.UserMapper;
 
+import java.util.ArrayList;
+
 public class BookingMapper {
     public static Booking toBooking(BookingPostDto bookingDto, Item item, User booker) {
         return new Booking(item,
@@ -30,6 +38,14 @@ public class BookingMapper {
                 booking.getStatus());
     }
 
+    public static BookingItemDto toBookingItemDto(BookingItemView view) {
+        return new BookingItemDto(view.getId(),
+                view.getStartTime(),
+                view.getEndTime(),
+                view.getBookerId(),
+                view.getStatus());
+    }
+
     public static BookingDto toBookingDto(Booking booking) {
         return new BookingDto(booking.getId(),
                 ItemMapper.toItemDto(booking.getItem()),
@@ -38,5 +54,46 @@ public class BookingMapper {
                 UserMapper.toUserDto(booking.getBooker()),
                 booking.getStatus());
     }
-}
 
+    public static BookingDto toBookingDto(BookingDetails details) {
+        return new BookingDto(details.getId(),
+                new ItemDto(details.getItemId(),
+                        details.getItemName(),
+                        details.getItemDescription(),
+                        details.isItemAvailable(),
+                        details.getItemRequestId(),
+                        null,
+                        null,
+                        new ArrayList<>()),
+                details.getStart(),
+                details.getEnd(),
+                new UserDto(details.getBookerId(), details.getBookerName(), details.getBookerEmail()),
+                details.getStatus());
+    }
+
+    public static BookingEvent toBookingEvent(Booking booking) {
+        return new BookingEvent(booking.getId(),
+                booking.getItem().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStatus());
+    }
+
+    public static BookingEvent toBookingEvent(BookingDetails details, BookingStatus status) {
+        return new BookingEvent(details.getId(),
+                details.getItemId(),
+                details.getItemOwnerId(),
+                details.getBookerId(),
+                status);
+    }
+
+    public static BookingEventDto toBookingEventDto(BookingEvent event) {
+        return new BookingEventDto(event.getSequenceNumber(),
+                event.getBookingId(),
+                event.getItemId(),
+                event.getOwnerId(),
+                event.getBookerId(),
+                event.getStatus(),
+                event.getCreated());
+    }
+}
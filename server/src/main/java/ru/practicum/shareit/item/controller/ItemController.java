@@ -1,14 +1,22 @@
 package ru.practicum.shareit.item.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.ETags;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.model.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
@@ -26,6 +34,12 @@ public class ItemController {
         return itemService.addItem(userId, item);
     }
 
+    @PostMapping("/batch")
+    public Collection<ItemDto> addItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                        @RequestBody List<ItemDto> items) {
+        return itemService.addItems(userId, items);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
                                  @RequestBody CommentPostDto dto,
@@ -34,13 +48,20 @@ public class ItemController {
     }
 
     @GetMapping
-    public Collection<ItemDto> getItems(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                        @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                        @RequestParam(name = "size", defaultValue = "20") Integer size) {
+    public ResponseEntity<Collection<ItemDto>> getItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
-        return itemService.getItems(userId, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(itemService.getItems(userId, from, size));
+        }
+        return CursorPage.toResponse(itemService.getItems(userId, PageCursor.decode(cursor), size),
+                size,
+                (ItemDto item) -> PageCursor.of(item.getId()));
     }
 
     @PatchMapping("/{itemId}")
@@ -51,9 +72,23 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                           @PathVariable Long itemId) {
-        return itemService.getItem(userId, itemId);
+    public ResponseEntity<ItemDto> getItem(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                           @PathVariable Long itemId,
+                                           WebRequest request) {
+        return ETags.toResponse(itemService.getTaggedItem(userId, itemId), request);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Collection<CommentDto>> getComments(
+            @PathVariable Long itemId,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        return CursorPage.toResponse(itemService.getComments(itemId, PageCursor.decode(cursor), size),
+                size,
+                (CommentDto comment) -> new PageCursor(comment.getCreated(), comment.getId()));
     }
 
     @GetMapping("/search")
@@ -65,4 +100,24 @@ public class ItemController {
         }
         return itemService.searchItems(text, from, size);
     }
+
+    @GetMapping("/available")
+    public ResponseEntity<Collection<ItemDto>> searchAvailableItems(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(name = "text", required = false) String text,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (from < 0 || size < 1) {
+            throw new UnsupportedOperationException("Неверные параметры запроса");
+        }
+        if (cursor == null) {
+            return ResponseEntity.ok(itemService.searchAvailableItems(text, start, end, from, size));
+        }
+        return CursorPage.toResponse(
+                itemService.searchAvailableItems(text, start, end, PageCursor.decode(cursor), size),
+                size,
+                (ItemDto item) -> PageCursor.of(item.getId()));
+    }
 }
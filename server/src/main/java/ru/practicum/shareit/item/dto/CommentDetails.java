@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CommentDetails {
+    private Long id;
+    private Long itemId;
+    private String authorName;
+    private String text;
+    private LocalDateTime created;
+    private long authorVersion;
+}
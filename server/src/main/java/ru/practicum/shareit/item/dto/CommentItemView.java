@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentItemView {
+    Long getId();
+
+    Long getItemId();
+
+    String getAuthorName();
+
+    String getText();
+
+    LocalDateTime getCreated();
+}
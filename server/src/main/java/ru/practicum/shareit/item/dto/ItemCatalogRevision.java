@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ItemCatalogRevision {
+    private Long items;
+    private Long idSum;
+    private Long versionSum;
+}
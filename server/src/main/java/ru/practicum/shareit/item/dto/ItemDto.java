@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 @Getter
@@ -22,4 +23,38 @@ public class ItemDto {
     private BookingItemDto nextBooking;
 
     private Collection<CommentDto> comments;
+    private Long commentsCount;
+
+    public ItemDto(Long id,
+                   String name,
+                   String description,
+                   Boolean available,
+                   Long requestId,
+                   Long commentsCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.requestId = requestId;
+        this.comments = new ArrayList<>();
+        this.commentsCount = commentsCount;
+    }
+
+    public ItemDto(Long id,
+                   String name,
+                   String description,
+                   Boolean available,
+                   Long requestId,
+                   BookingItemDto lastBooking,
+                   BookingItemDto nextBooking,
+                   Collection<CommentDto> comments) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.requestId = requestId;
+        this.lastBooking = lastBooking;
+        this.nextBooking = nextBooking;
+        this.comments = comments;
+    }
 }
@@ -4,8 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.cache.SecondLevelCacheConfig;
 
 import javax.persistence.*;
 
@@ -14,10 +17,13 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ITEMS_REGION)
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     @Column(name = "item_id", nullable = false)
     private Long id;
     @Column(name = "item_name", nullable = false, length = 100)
@@ -26,11 +32,26 @@ public class Item {
     private String description;
     @Column(name = "is_available", nullable = false)
     private boolean isAvailable;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+
+    @Column(name = "comments_count", insertable = false, updatable = false)
+    private long commentsCount;
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public Item(Long id, String name, String description, boolean isAvailable, User owner, ItemRequest request) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isAvailable = isAvailable;
+        this.owner = owner;
+        this.request = request;
+    }
 }
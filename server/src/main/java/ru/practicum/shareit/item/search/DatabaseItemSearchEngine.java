@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    private final ItemStorage itemStorage;
+
+    @Autowired
+    public DatabaseItemSearchEngine(ItemStorage itemStorage) {
+        this.itemStorage = itemStorage;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemStorage.searchItems(text, pageable).getContent();
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, Long afterId, int limit) {
+        return itemStorage.searchItemsAfter(text, afterId, limit);
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+}
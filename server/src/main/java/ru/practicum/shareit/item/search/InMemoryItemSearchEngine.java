@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemCatalogRevision;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int BOOTSTRAP_BATCH_SIZE = 500;
+
+    private final ItemStorage itemStorage;
+    private volatile ItemSearchIndex index = new ItemSearchIndex();
+    private volatile ItemCatalogRevision revision;
+
+    @Autowired
+    public InMemoryItemSearchEngine(ItemStorage itemStorage) {
+        this.itemStorage = itemStorage;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        ItemCatalogRevision current = itemStorage.findAvailableRevision();
+        ItemSearchIndex rebuilt = new ItemSearchIndex();
+        Pageable pageable = PageRequest.of(0, BOOTSTRAP_BATCH_SIZE);
+        Slice<Item> items;
+        do {
+            items = itemStorage.findByIsAvailableTrueOrderByIdAsc(pageable);
+            items.forEach((Item item) -> rebuilt.put(item.getId(), item.getName(), item.getDescription()));
+            pageable = items.nextPageable();
+        } while (items.hasNext());
+        index = rebuilt;
+        revision = current;
+        log.info("Поисковый индекс построен, предметов в индексе: {}", rebuilt.size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search.memory.refresh-delay:30000}")
+    public void refresh() {
+        if (!itemStorage.findAvailableRevision().equals(revision)) {
+            bootstrap();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (!index.covers(text)) {
+            return itemStorage.searchItems(text, pageable).getContent();
+        }
+        return load(index.search(text, pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, Long afterId, int limit) {
+        if (!index.covers(text)) {
+            return itemStorage.searchItemsAfter(text, afterId, limit);
+        }
+        return load(index.searchAfter(text, afterId, limit));
+    }
+
+    private List<Item> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemStorage.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        long id = item.getId();
+        Runnable update;
+        if (item.isAvailable()) {
+            String name = item.getName();
+            String description = item.getDescription();
+            update = () -> index.put(id, name, description);
+        } else {
+            update = () -> index.remove(id);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
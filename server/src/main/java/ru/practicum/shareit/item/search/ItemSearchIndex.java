@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String> documents = new HashMap<>();
+    private final Postings allIds = new Postings();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(long id, String name, String description) {
+        String document = normalize(name) + FIELD_SEPARATOR + normalize(description);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, document);
+            allIds.add(id);
+            for (String gram : grams(document)) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean covers(String text) {
+        return normalize(text).length() >= GRAM_LENGTH;
+    }
+
+    List<Long> search(String text, long offset, int limit) {
+        return search(text, 0, offset, limit);
+    }
+
+    List<Long> searchAfter(String text, long afterId, int limit) {
+        return search(text, afterId, 0, limit);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> search(String text, long afterId, long offset, int limit) {
+        String query = normalize(text);
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] candidates = candidates(query);
+            int first = Arrays.binarySearch(candidates, afterId + 1);
+            long skipped = 0;
+            for (int i = first < 0 ? -first - 1 : first; i < candidates.length && result.size() < limit; i++) {
+                if (!documents.get(candidates[i]).contains(query)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                result.add(candidates[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private long[] candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return allIds.toArray();
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((Postings a, Postings b) -> Integer.compare(a.size(), b.size()));
+        long[] candidates = lists.get(0).toArray();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            Postings list = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (list.contains(candidates[j])) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private void removeDocument(long id) {
+        String document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        allIds.remove(id);
+        for (String gram : grams(document)) {
+            Postings list = postings.get(gram);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -3,19 +3,43 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
     ItemDto addItem(Long userId, ItemDto item);
 
+    Collection<ItemDto> addItems(Long userId, List<ItemDto> items);
+
     Collection<ItemDto> getItems(Long userId, Integer from, Integer size);
 
+    Collection<ItemDto> getItems(Long userId, PageCursor after, Integer size);
+
     ItemDto patchItem(Long userId, Long itemId, ItemDto itemDto);
 
     ItemDto getItem(Long userId, Long itemId);
 
+    Tagged<ItemDto> getTaggedItem(Long userId, Long itemId);
+
+    Collection<CommentDto> getComments(Long itemId, PageCursor after, Integer size);
+
     Collection<ItemDto> searchItems(String text, Integer from, Integer size);
 
+    Collection<ItemDto> searchAvailableItems(String text,
+                                             LocalDateTime start,
+                                             LocalDateTime end,
+                                             Integer from,
+                                             Integer size);
+
+    Collection<ItemDto> searchAvailableItems(String text,
+                                             LocalDateTime start,
+                                             LocalDateTime end,
+                                             PageCursor after,
+                                             Integer size);
+
     CommentDto addComment(Long userId, CommentPostDto dto, Long itemId);
 }
@@ -2,16 +2,23 @@ package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingItemView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.booking.utils.BookingMapper;
+import ru.practicum.shareit.item.dto.CommentDetails;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.utils.CommentMapper;
 import ru.practicum.shareit.item.utils.ItemMapper;
@@ -25,40 +32,60 @@ import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.utils.exceptions.UnauthorizedAccessException;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.exceptions.ValidationException;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int LATEST_COMMENTS = 10;
+    private static final int AVAILABILITY_BATCH_SIZE = 100;
+    private static final int MAX_AVAILABILITY_BATCHES = 10;
+    private static final List<BookingStatus> OCCUPYING_STATUSES = List.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
     ItemStorage itemStorage;
     UserStorage userStorage;
     CommentStorage commentStorage;
     BookingStorage bookingStorage;
     ItemRequestStorage itemRequestStorage;
+    ItemSearchEngine itemSearchEngine;
+    BookingAvailabilityEngine availability;
 
     @Autowired
     public ItemServiceImpl(ItemStorage itemStorage,
                            UserStorage userStorage,
                            CommentStorage commentStorage,
                            BookingStorage bookingStorage,
-                           ItemRequestStorage itemRequestStorage) {
+                           ItemRequestStorage itemRequestStorage,
+                           ItemSearchEngine itemSearchEngine,
+                           BookingAvailabilityEngine availability) {
         this.itemStorage = itemStorage;
         this.userStorage = userStorage;
         this.commentStorage = commentStorage;
         this.bookingStorage = bookingStorage;
         this.itemRequestStorage = itemRequestStorage;
+        this.itemSearchEngine = itemSearchEngine;
+        this.availability = availability;
     }
 
     @Override
     @Transactional
     public ItemDto addItem(Long userId, ItemDto itemDto) {
-        User owner = userStorage.findById(userId).orElseThrow(
+        User owner = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         ItemRequest itemRequest = null;
@@ -67,30 +94,62 @@ public class ItemServiceImpl implements ItemService {
                     () -> new ObjectNotFoundException("Не найден запрос с id " + itemDto.getRequestId())
             );
         }
-        return ItemMapper.toItemDto(itemStorage.save(ItemMapper.toItem(itemDto, owner, itemRequest)));
+        Item item = itemStorage.save(ItemMapper.toItem(itemDto, owner, itemRequest));
+        itemSearchEngine.index(item);
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Override
+    @Transactional
+    public Collection<ItemDto> addItems(Long userId, List<ItemDto> itemDtos) {
+        User owner = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> itemRequests = new HashMap<>();
+        if (!requestIds.isEmpty()) {
+            itemRequestStorage.findAllById(requestIds)
+                    .forEach(itemRequest -> itemRequests.put(itemRequest.getId(), itemRequest));
+        }
+        List<Item> items = new ArrayList<>();
+        for (ItemDto itemDto : itemDtos) {
+            ItemRequest itemRequest = null;
+            if (itemDto.getRequestId() != null) {
+                itemRequest = itemRequests.get(itemDto.getRequestId());
+                if (itemRequest == null) {
+                    throw new ObjectNotFoundException("Не найден запрос с id " + itemDto.getRequestId());
+                }
+            }
+            items.add(ItemMapper.toItem(itemDto, owner, itemRequest));
+        }
+        List<Item> saved = itemStorage.saveAll(items);
+        saved.forEach(itemSearchEngine::index);
+        return saved.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Collection<ItemDto> getItems(Long userId, Integer from, Integer size) {
-        User owner = userStorage.findById(userId).orElseThrow(
+        User owner = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         Pageable page = PageRequest.of(from / size, size);
-        Page<Item> items = itemStorage.findAllByOwnerIsOrderByIdAsc(owner, page);
-        Collection<ItemDto> itemDtos = new ArrayList<>();
-        for (Item item : items) {
-            itemDtos.add(ItemMapper.toItemDto(item,
-                    BookingMapper.toBookingItemDto(bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(item,
-                            LocalDateTime.now()).orElse(null)),
-                    BookingMapper.toBookingItemDto(bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(item,
-                            LocalDateTime.now()).orElse(null)),
-                    commentStorage.findByItemIsOrderByCreatedDesc(item)
-                            .stream()
-                            .map(CommentMapper::toCommentDto)
-                            .collect(Collectors.toList()))
-            );
-        }
-        return itemDtos;
+        return toOwnerItemDtos(itemStorage.findAllByOwnerIsOrderByIdAsc(owner, page).getContent());
+    }
+
+    @Override
+    public Collection<ItemDto> getItems(Long userId, PageCursor after, Integer size) {
+        User owner = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        Long afterId = after == null ? 0L : after.getId();
+        return toOwnerItemDtos(itemStorage.findAllByOwnerIsAndIdGreaterThanOrderByIdAsc(owner,
+                afterId,
+                PageRequest.of(0, size)));
     }
 
     @Override
@@ -111,32 +170,56 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.toItemDto(itemStorage.save(item), commentStorage.findByItemIsOrderByCreatedDesc(item)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+        item = itemStorage.save(item);
+        itemSearchEngine.index(item);
+        return ItemMapper.toItemDto(item, toCommentDtos(getLatestComments(item)));
     }
 
     @Override
     public ItemDto getItem(Long userId, Long itemId) {
+        return getTaggedItem(userId, itemId).getBody();
+    }
+
+    @Override
+    public Tagged<ItemDto> getTaggedItem(Long userId, Long itemId) {
         Item item = itemStorage.findById(itemId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден предмет с id " + itemId)
         );
+        List<CommentDetails> comments = getLatestComments(item);
+        long authorsVersion = comments.stream()
+                .mapToLong(CommentDetails::getAuthorVersion)
+                .sum();
         if (item.getOwner().getId().equals(userId)) {
-            return ItemMapper.toItemDto(item,
-                    BookingMapper.toBookingItemDto(bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(item,
-                            LocalDateTime.now()).orElse(null)),
-                    BookingMapper.toBookingItemDto(bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(item,
-                            LocalDateTime.now()).orElse(null)),
-                    commentStorage.findByItemIsOrderByCreatedDesc(item)
-                            .stream()
-                            .map(CommentMapper::toCommentDto)
-                            .collect(Collectors.toList()));
-        }
-        return ItemMapper.toItemDto(item, commentStorage.findByItemIsOrderByCreatedDesc(item)
+            Booking lastBooking = bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(item,
+                    LocalDateTime.now()).orElse(null);
+            Booking nextBooking = bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(item,
+                    LocalDateTime.now()).orElse(null);
+            return Tagged.personalOf(() -> ItemMapper.toItemDto(item,
+                            BookingMapper.toBookingItemDto(lastBooking),
+                            BookingMapper.toBookingItemDto(nextBooking),
+                            toCommentDtos(comments)),
+                    item.getId(),
+                    item.getVersion(),
+                    authorsVersion,
+                    versionOf(lastBooking),
+                    versionOf(nextBooking));
+        }
+        return Tagged.of(() -> ItemMapper.toItemDto(item, toCommentDtos(comments)),
+                item.getId(),
+                item.getVersion(),
+                authorsVersion);
+    }
+
+    @Override
+    public Collection<CommentDto> getComments(Long itemId, PageCursor after, Integer size) {
+        if (!itemStorage.existsById(itemId)) {
+            throw new ObjectNotFoundException("Не найден предмет с id " + itemId);
+        }
+        PageCursor cursor = after == null ? PageCursor.first() : after.requireTime();
+        return commentStorage.findByItemIdAfter(itemId, cursor.getTime(), cursor.getId(), PageRequest.of(0, size))
                 .stream()
                 .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -145,23 +228,98 @@ public class ItemServiceImpl implements ItemService {
             return new ArrayList<>();
         }
         Pageable page = PageRequest.of(from / size, size);
-        return itemStorage.searchItems(text, page).stream()
+        return itemSearchEngine.search(text, page).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Collection<ItemDto> searchAvailableItems(String text,
+                                                    LocalDateTime start,
+                                                    LocalDateTime end,
+                                                    Integer from,
+                                                    Integer size) {
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Дата начала должна быть раньше даты окончания");
+        }
+        if (text == null || text.isBlank()) {
+            return itemStorage.findFreeAvailableItems(OCCUPYING_STATUSES, start, end,
+                            PageRequest.of(from / size, size)).stream()
+                    .filter((Item item) -> availability.isFree(item.getId(), start, end))
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+        List<ItemDto> result = new ArrayList<>();
+        long skipped = 0;
+        Pageable page = PageRequest.of(0, AVAILABILITY_BATCH_SIZE);
+        List<Item> batch;
+        int scanned = 0;
+        do {
+            batch = itemSearchEngine.search(text, page);
+            for (Item item : batch) {
+                if (!availability.isFree(item.getId(), start, end)) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                    continue;
+                }
+                result.add(ItemMapper.toItemDto(item));
+                if (result.size() == size) {
+                    return result;
+                }
+            }
+            page = page.next();
+        } while (batch.size() == AVAILABILITY_BATCH_SIZE && ++scanned < MAX_AVAILABILITY_BATCHES);
+        return result;
+    }
+
+    @Override
+    public Collection<ItemDto> searchAvailableItems(String text,
+                                                    LocalDateTime start,
+                                                    LocalDateTime end,
+                                                    PageCursor after,
+                                                    Integer size) {
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Дата начала должна быть раньше даты окончания");
+        }
+        long afterId = after == null ? 0L : after.getId();
+        if (text == null || text.isBlank()) {
+            return itemStorage.findFreeAvailableItemsAfter(OCCUPYING_STATUSES, start, end, afterId,
+                            PageRequest.of(0, size)).stream()
+                    .filter((Item item) -> availability.isFree(item.getId(), start, end))
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+        List<ItemDto> result = new ArrayList<>();
+        List<Item> batch;
+        int scanned = 0;
+        do {
+            batch = itemSearchEngine.searchAfter(text, afterId, AVAILABILITY_BATCH_SIZE);
+            for (Item item : batch) {
+                afterId = item.getId();
+                if (!availability.isFree(item.getId(), start, end)) {
+                    continue;
+                }
+                result.add(ItemMapper.toItemDto(item));
+                if (result.size() == size) {
+                    return result;
+                }
+            }
+        } while (batch.size() == AVAILABILITY_BATCH_SIZE && ++scanned < MAX_AVAILABILITY_BATCHES);
+        return result;
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(Long userId, CommentPostDto dto, Long itemId) {
-        User user = userStorage.findById(userId).orElseThrow(
+        User user = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         Item item = itemStorage.findById(itemId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден предмет с id " + itemId)
         );
-        if (bookingStorage.findAllByBookerAndItemAndEndBeforeOrderByStartDesc(user,
-                item,
-                LocalDateTime.now()).size() == 0) {
+        if (!bookingStorage.existsPastBooking(user.getId(), item.getId(), LocalDateTime.now())) {
             throw new UnsupportedOperationException("Нельзя оставить комментарий," +
                     " так как данный предмет не был арендован");
         }
@@ -169,6 +327,54 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setAuthor(user);
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDto(commentStorage.save(comment));
+        comment = commentStorage.save(comment);
+        itemStorage.incrementCommentsCount(itemId);
+        return CommentMapper.toCommentDto(comment);
+    }
+
+    private List<CommentDetails> getLatestComments(Item item) {
+        return commentStorage.findByItemIdAfter(item.getId(),
+                PageCursor.LATEST,
+                Long.MAX_VALUE,
+                PageRequest.of(0, LATEST_COMMENTS));
+    }
+
+    private static Collection<CommentDto> toCommentDtos(List<CommentDetails> comments) {
+        return comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    private static String versionOf(Booking booking) {
+        return booking == null ? "0" : booking.getId() + "." + booking.getVersion();
+    }
+
+    private Collection<ItemDto> toOwnerItemDtos(Collection<ItemDto> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingItemDto> lastBookings = new HashMap<>();
+        Map<Long, BookingItemDto> nextBookings = new HashMap<>();
+        for (BookingItemView booking : bookingStorage.findLastAndNextBookings(itemIds, now)) {
+            if (booking.getEndTime().isBefore(now)) {
+                lastBookings.put(booking.getItemId(), BookingMapper.toBookingItemDto(booking));
+            } else {
+                nextBookings.put(booking.getItemId(), BookingMapper.toBookingItemDto(booking));
+            }
+        }
+        Map<Long, List<CommentDto>> comments = commentStorage.findLatestByItemIdIn(itemIds, LATEST_COMMENTS)
+                .stream()
+                .collect(Collectors.groupingBy(CommentItemView::getItemId,
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        for (ItemDto item : items) {
+            item.setLastBooking(lastBookings.get(item.getId()));
+            item.setNextBooking(nextBookings.get(item.getId()));
+            item.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+        }
+        return items;
     }
 }
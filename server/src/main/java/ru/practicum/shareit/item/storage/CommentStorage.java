@@ -1,13 +1,53 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentDetails;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
 public interface CommentStorage extends JpaRepository<Comment, Long> {
-    Collection<Comment> findByItemIsOrderByCreatedDesc(Item item);
+    String COMMENT_DETAILS = "select new ru.practicum.shareit.item.dto.CommentDetails(" +
+            "c.id, c.item.id, a.name, c.text, c.created, a.version) " +
+            "from Comment c " +
+            "join c.author a ";
+
+    @Query(value = "SELECT ranked.comment_id AS \"id\", " +
+            "ranked.item_id AS \"itemId\", " +
+            "u.user_name AS \"authorName\", " +
+            "ranked.comment_text AS \"text\", " +
+            "CAST(ranked.created AS timestamp) AS \"created\" " +
+            "FROM (SELECT c.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY c.item_id ORDER BY c.created DESC, c.comment_id DESC" +
+            ") AS rn " +
+            "FROM comments c " +
+            "WHERE c.item_id IN (:itemIds)) ranked " +
+            "JOIN users u ON u.user_id = ranked.author_id " +
+            "WHERE ranked.rn <= :limit " +
+            "ORDER BY ranked.item_id, ranked.created DESC, ranked.comment_id DESC",
+            nativeQuery = true)
+    Collection<CommentItemView> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                     @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(COMMENT_DETAILS +
+            "where c.item.id = :itemId " +
+            "and (c.created < :created or (c.created = :created and c.id < :id)) " +
+            "order by c.created desc, c.id desc")
+    List<CommentDetails> findByItemIdAfter(@Param("itemId") Long itemId,
+                                           @Param("created") LocalDateTime created,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchStorage {
+    Page<Item> searchItems(String text, Pageable pageable);
+
+    List<Item> searchItemsAfter(String text, Long afterId, int limit);
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+public class ItemSearchStorageImpl implements ItemSearchStorage {
+    private static final String PATTERN_CONDITION = "FROM Item i " +
+            "WHERE (upper(i.name) like upper(CONCAT('%', :text, '%')) " +
+            "or upper(i.description) like upper(CONCAT('%', :text, '%'))) " +
+            "and i.isAvailable = true";
+
+    private static final String FULL_TEXT_CONDITION = "FROM items i " +
+            "WHERE i.is_available " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR i.item_name ILIKE '%' || :text || '%' " +
+            "OR i.description ILIKE '%' || :text || '%')";
+
+    private final EntityManager entityManager;
+    private final boolean fullTextEnabled;
+
+    public ItemSearchStorageImpl(EntityManager entityManager,
+                                 @Value("${shareit.search.full-text:false}") boolean fullTextEnabled) {
+        this.entityManager = entityManager;
+        this.fullTextEnabled = fullTextEnabled;
+    }
+
+    @Override
+    public Page<Item> searchItems(String text, Pageable pageable) {
+        if (fullTextEnabled) {
+            return searchByFullText(text, pageable);
+        }
+        return searchByPattern(text, pageable);
+    }
+
+    @Override
+    public List<Item> searchItemsAfter(String text, Long afterId, int limit) {
+        if (fullTextEnabled) {
+            @SuppressWarnings("unchecked")
+            List<Item> items = entityManager.createNativeQuery("SELECT i.* " + FULL_TEXT_CONDITION + " " +
+                            "AND i.item_id > :after ORDER BY i.item_id", Item.class)
+                    .setParameter("text", text)
+                    .setParameter("after", afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+            return items;
+        }
+        return entityManager.createQuery("SELECT i " + PATTERN_CONDITION + " and i.id > :after order by i.id",
+                        Item.class)
+                .setParameter("text", text)
+                .setParameter("after", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private Page<Item> searchByFullText(String text, Pageable pageable) {
+        @SuppressWarnings("unchecked")
+        List<Item> items = entityManager.createNativeQuery("SELECT i.* " + FULL_TEXT_CONDITION + " " +
+                        "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', :text)) DESC, i.item_id",
+                        Item.class)
+                .setParameter("text", text)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(items, pageable,
+                () -> ((Number) entityManager.createNativeQuery("SELECT count(*) " + FULL_TEXT_CONDITION)
+                        .setParameter("text", text)
+                        .getSingleResult()).longValue());
+    }
+
+    private Page<Item> searchByPattern(String text, Pageable pageable) {
+        List<Item> items = entityManager.createQuery("SELECT i " + PATTERN_CONDITION + " order by i.id", Item.class)
+                .setParameter("text", text)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(items, pageable,
+                () -> entityManager.createQuery("SELECT count(i) " + PATTERN_CONDITION, Long.class)
+                        .setParameter("text", text)
+                        .getSingleResult());
+    }
+}
@@ -1,25 +1,95 @@
 package ru.practicum.shareit.item.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemCatalogRevision;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
-public interface ItemStorage extends JpaRepository<Item, Long> {
-    Page<Item> findAllByOwnerIsOrderByIdAsc(User owner, Pageable pageable);
+public interface ItemStorage extends JpaRepository<Item, Long>, ItemSearchStorage {
+    String FREE_AVAILABLE_ITEMS = "select i from Item i " +
+            "where i.isAvailable = true " +
+            "and not exists (select b.id from Booking b " +
+            "where b.item = i and b.status in ?1 and b.start < ?3 and b.end > ?2) ";
+
+    String ITEM_DTO = "select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "i.id, i.name, i.description, i.isAvailable, i.request.id, i.commentsCount) " +
+            "from Item i ";
+
+    @Query(ITEM_DTO +
+            "where i.owner = ?1 " +
+            "order by i.id")
+    Slice<ItemDto> findAllByOwnerIsOrderByIdAsc(User owner, Pageable pageable);
+
+    @Query(ITEM_DTO +
+            "where i.owner = ?1 " +
+            "and i.id > ?2 " +
+            "order by i.id")
+    List<ItemDto> findAllByOwnerIsAndIdGreaterThanOrderByIdAsc(User owner, Long id, Pageable pageable);
+
+    @Query(ITEM_DTO +
+            "where i.request.id in ?1")
+    Collection<ItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select coalesce(sum(i.version + 1), 0) from Item i " +
+            "where i.request.id = ?1")
+    long countRevisionsByRequestId(Long requestId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemCatalogRevision(" +
+            "count(i), coalesce(sum(i.id), 0), coalesce(sum(i.version), 0)) " +
+            "from Item i " +
+            "where i.isAvailable = true")
+    ItemCatalogRevision findAvailableRevision();
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Item> findAllById(Iterable<Long> itemIds);
+
+    Slice<Item> findByIsAvailableTrueOrderByIdAsc(Pageable pageable);
+
+    @Query(FREE_AVAILABLE_ITEMS +
+            "order by i.id")
+    Slice<Item> findFreeAvailableItems(Collection<BookingStatus> statuses,
+                                       LocalDateTime start,
+                                       LocalDateTime end,
+                                       Pageable pageable);
+
+    @Query(FREE_AVAILABLE_ITEMS +
+            "and i.id > ?4 " +
+            "order by i.id")
+    List<Item> findFreeAvailableItemsAfter(Collection<BookingStatus> statuses,
+                                           LocalDateTime start,
+                                           LocalDateTime end,
+                                           Long id,
+                                           Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i " +
+            "set i.commentsCount = i.commentsCount + 1, i.version = i.version + 1 " +
+            "where i.id = ?1")
+    void incrementCommentsCount(Long itemId);
 
-    @Query("SELECT i FROM Item as i " +
-            "WHERE (upper(i.name) like upper(CONCAT('%', ?1, '%')) " +
-            "or upper(i.description) like upper(CONCAT('%', ?1, '%')))" +
-            "and i.isAvailable = true")
-    Page<Item> searchItems(String text, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findLockedById(Long itemId);
 
-    Collection<Item> findAllByRequestIn(Collection<ItemRequest> itemRequests);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findLockedByIdInOrderByIdAsc(Collection<Long> itemIds);
 }
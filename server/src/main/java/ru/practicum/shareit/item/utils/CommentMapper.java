@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.utils;
 
+import ru.practicum.shareit.item.dto.CommentDetails;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.model.Comment;
@@ -15,4 +17,18 @@ public class CommentMapper {
                 comment.getText(),
                 comment.getCreated());
     }
+
+    public static CommentDto toCommentDto(CommentDetails details) {
+        return new CommentDto(details.getId(),
+                details.getAuthorName(),
+                details.getText(),
+                details.getCreated());
+    }
+
+    public static CommentDto toCommentDto(CommentItemView view) {
+        return new CommentDto(view.getId(),
+                view.getAuthorName(),
+                view.getText(),
+                view.getCreated());
+    }
 }
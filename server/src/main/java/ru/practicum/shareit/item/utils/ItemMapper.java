@@ -22,7 +22,8 @@ public class ItemMapper {
                 item.getRequest() != null ? item.getRequest().getId() : null,
                 lastBooking,
                 nextBooking,
-                comments);
+                comments,
+                item.getCommentsCount());
     }
 
     public static ItemDto toItemDto(Item item, Collection<CommentDto> comments) {
@@ -33,7 +34,8 @@ public class ItemMapper {
                 item.getRequest() != null ? item.getRequest().getId() : null,
                 null,
                 null,
-                comments);
+                comments,
+                item.getCommentsCount());
     }
 
     public static ItemDto toItemDto(Item item) {
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.request.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.ETags;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.model.PageCursor;
 
 import java.util.Collection;
 
@@ -31,18 +36,26 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto getRequestById(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                         @PathVariable Long requestId) {
-        return itemRequestService.getRequestById(userId, requestId);
+    public ResponseEntity<ItemRequestDto> getRequestById(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                         @PathVariable Long requestId,
+                                                         WebRequest request) {
+        return ETags.toResponse(itemRequestService.getTaggedRequestById(userId, requestId), request);
     }
 
     @GetMapping("/all")
-    public Collection<ItemRequestDto> getAllRequests(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                                                     @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                     @RequestParam(name = "size", defaultValue = "20") Integer size) {
+    public ResponseEntity<Collection<ItemRequestDto>> getAllRequests(
+            @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         if (from < 0 || size < 1) {
             throw new UnsupportedOperationException("Неверные параметры запроса");
         }
-        return itemRequestService.getAllRequests(userId, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getAllRequests(userId, from, size));
+        }
+        return CursorPage.toResponse(itemRequestService.getAllRequests(userId, PageCursor.decode(cursor), size),
+                size,
+                (ItemRequestDto request) -> new PageCursor(request.getCreated(), request.getId()));
     }
 }
@@ -7,6 +7,7 @@ import lombok.Setter;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 
 @Getter
@@ -19,4 +20,12 @@ public class ItemRequestDto {
     private Long requester;
     private LocalDateTime created;
     private Collection<ItemDto> items;
+
+    public ItemRequestDto(Long id, String description, Long requester, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.requester = requester;
+        this.created = created;
+        this.items = new ArrayList<>();
+    }
 }
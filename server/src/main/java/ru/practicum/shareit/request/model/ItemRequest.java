@@ -1,7 +1,10 @@
 package ru.practicum.shareit.request.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.cache.SecondLevelCacheConfig;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -11,17 +14,30 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.REQUESTS_REGION)
 @Table(name = "requests")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     @Column(name = "request_id", nullable = false)
     private Long id;
     @Column(nullable = false)
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User requester;
     @Column(nullable = false)
     private LocalDateTime created;
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public ItemRequest(Long id, String description, User requester, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.requester = requester;
+        this.created = created;
+    }
 }
@@ -2,6 +2,8 @@ package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.util.Collection;
 
@@ -13,5 +15,9 @@ public interface ItemRequestService {
 
     ItemRequestDto getRequestById(Long userId, Long requestId);
 
+    Tagged<ItemRequestDto> getTaggedRequestById(Long userId, Long requestId);
+
     Collection<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size);
+
+    Collection<ItemRequestDto> getAllRequests(Long userId, PageCursor after, Integer size);
 }
@@ -1,14 +1,12 @@
 package ru.practicum.shareit.request.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.storage.ItemStorage;
-import ru.practicum.shareit.item.utils.ItemMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -17,10 +15,13 @@ import ru.practicum.shareit.request.utils.ItemRequestMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,7 +43,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional
     public ItemRequestDto createRequest(Long userId, ItemRequestPostDto dto) {
-        User requester = userStorage.findById(userId).orElseThrow(
+        User requester = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         return ItemRequestMapper.toItemRequestDto(
@@ -54,57 +55,68 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public Collection<ItemRequestDto> getRequests(Long userId) {
-        User requester = userStorage.findById(userId).orElseThrow(
+        User requester = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
-        Collection<ItemRequest> itemRequests = itemRequestStorage.findByRequesterIsOrderByCreatedDesc(requester);
-        Collection<Item> items = itemStorage.findAllByRequestIn(itemRequests);
-        return toItemRequestDtos(itemRequests, items);
+        return withItems(itemRequestStorage.findByRequesterIsOrderByCreatedDesc(requester));
     }
 
     @Override
     public ItemRequestDto getRequestById(Long userId, Long requestId) {
-        userStorage.findById(userId).orElseThrow(
+        return getTaggedRequestById(userId, requestId).getBody();
+    }
+
+    @Override
+    public Tagged<ItemRequestDto> getTaggedRequestById(Long userId, Long requestId) {
+        userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         ItemRequest itemRequest = itemRequestStorage.findById(requestId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден запрос с id " + requestId)
         );
-        Collection<Item> items = itemStorage.findAllByRequestIn(List.of(itemRequest));
-        return ItemRequestMapper.toItemRequestDto(itemRequest,
-                items.stream()
-                        .map(ItemMapper::toItemDto)
-                        .collect(Collectors.toList()));
+        ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
+        return Tagged.of(() -> {
+                    itemRequestDto.setItems(itemStorage.findAllByRequestIdIn(List.of(requestId)));
+                    return itemRequestDto;
+                },
+                itemRequest.getId(),
+                itemRequest.getVersion(),
+                itemStorage.countRevisionsByRequestId(requestId));
     }
 
     @Override
     public Collection<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size) {
-        User user = userStorage.findById(userId).orElseThrow(
+        User user = userStorage.findCachedById(userId).orElseThrow(
                 () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
         );
         Pageable pageable = PageRequest.of(from / size, size);
-        Page<ItemRequest> itemRequests = itemRequestStorage.findAllByRequesterIsNotOrderByCreatedDesc(user, pageable);
-        Collection<Item> items = itemStorage.findAllByRequestIn(itemRequests.toList());
-        return toItemRequestDtos(itemRequests.toList(), items);
+        return withItems(itemRequestStorage.findAllByRequesterIsNotOrderByCreatedDesc(user, pageable).getContent());
     }
 
-    private Collection<ItemRequestDto> toItemRequestDtos(Collection<ItemRequest> itemRequests,
-                                                         Collection<Item> items) {
-        Collection<ItemRequestDto> dtos = new LinkedList<>();
-        for (ItemRequest itemRequest : itemRequests) {
-            Collection<Item> itemsOfRequest = getItemsOfRequest(itemRequest, items);
-            dtos.add(ItemRequestMapper.toItemRequestDto(itemRequest, itemsOfRequest
-                    .stream()
-                    .map(ItemMapper::toItemDto)
-                    .collect(Collectors.toList())
-            ));
-        }
-        return dtos;
+    @Override
+    public Collection<ItemRequestDto> getAllRequests(Long userId, PageCursor after, Integer size) {
+        User user = userStorage.findCachedById(userId).orElseThrow(
+                () -> new ObjectNotFoundException("Не найден пользователь с id " + userId)
+        );
+        PageCursor cursor = after == null ? PageCursor.first() : after.requireTime();
+        return withItems(itemRequestStorage.findAllByRequesterIsNotAfter(user,
+                cursor.getTime(),
+                cursor.getId(),
+                PageRequest.of(0, size)));
     }
 
-    private Collection<Item> getItemsOfRequest(ItemRequest request, Collection<Item> items) {
-        return items.stream()
-                .filter((Item item) -> item.getRequest().equals(request))
-                .collect(Collectors.toList());
+    private Collection<ItemRequestDto> withItems(Collection<ItemRequestDto> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return itemRequests;
+        }
+        Map<Long, List<ItemDto>> items = itemStorage.findAllByRequestIdIn(itemRequests.stream()
+                        .map(ItemRequestDto::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        for (ItemRequestDto itemRequest : itemRequests) {
+            itemRequest.setItems(items.getOrDefault(itemRequest.getId(), new ArrayList<>()));
+        }
+        return itemRequests;
     }
 }
@@ -1,17 +1,49 @@
 package ru.practicum.shareit.request.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
-    Collection<ItemRequest> findByRequesterIsOrderByCreatedDesc(User requester);
+    String ITEM_REQUEST_DTO = "select new ru.practicum.shareit.request.dto.ItemRequestDto(" +
+            "r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r ";
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<ItemRequest> findAllById(Iterable<Long> requestIds);
+
+    @Query(ITEM_REQUEST_DTO +
+            "where r.requester = ?1 " +
+            "order by r.created desc")
+    Collection<ItemRequestDto> findByRequesterIsOrderByCreatedDesc(User requester);
+
+    @Query(ITEM_REQUEST_DTO +
+            "where r.requester <> ?1 " +
+            "order by r.created desc")
+    Slice<ItemRequestDto> findAllByRequesterIsNotOrderByCreatedDesc(User user, Pageable pageable);
 
-    Page<ItemRequest> findAllByRequesterIsNotOrderByCreatedDesc(User user, Pageable pageable);
+    @Query(ITEM_REQUEST_DTO +
+            "where r.requester <> :user " +
+            "and (r.created < :created or (r.created = :created and r.id < :id)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestDto> findAllByRequesterIsNotAfter(@Param("user") User user,
+                                                      @Param("created") LocalDateTime created,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
 }
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.user.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.utils.cache.SecondLevelCacheConfig;
 
 import javax.persistence.*;
 
@@ -10,14 +13,26 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS_REGION)
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     private Long id;
     @Column(name = "user_name", nullable = false, length = 200)
     private String name;
     @Column(nullable = false, unique = true, length = 150)
     private String email;
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public User(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
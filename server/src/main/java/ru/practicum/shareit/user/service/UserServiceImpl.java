@@ -32,7 +32,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUser(Long userId) {
-        User user = userStorage.findById(userId)
+        User user = userStorage.findCachedById(userId)
                 .orElseThrow(() -> {
                     throw new ObjectNotFoundException("Не найден пользователь с id " + userId);
                 });
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.user.storage;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+public interface UserCacheStorage {
+    Optional<User> findCachedById(Long userId);
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.storage;
+
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+public class UserCacheStorageImpl implements UserCacheStorage {
+    private final EntityManager entityManager;
+
+    public UserCacheStorageImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<User> findCachedById(Long userId) {
+        return Optional.ofNullable(entityManager.find(User.class, userId));
+    }
+}
@@ -5,5 +5,5 @@ import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
 @Repository
-public interface UserStorage extends JpaRepository<User, Long> {
+public interface UserStorage extends JpaRepository<User, Long>, UserCacheStorage {
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.utils.model.PageCursor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static <T> ResponseEntity<Collection<T>> toResponse(Collection<T> content,
+                                                              int size,
+                                                              Function<T, PageCursor> cursorOf) {
+        List<T> page = new ArrayList<>(content);
+        if (page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)).encode())
+                .body(page);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.utils.model.Tagged;
+
+public class ETags {
+    public static <T> ResponseEntity<T> toResponse(Tagged<T> tagged, WebRequest request) {
+        if (request.checkNotModified(tagged.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(tagged.getETag());
+        if (tagged.isPersonal()) {
+            response.cacheControl(CacheControl.noCache().cachePrivate());
+        }
+        return response.body(tagged.getBody());
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.utils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -35,6 +36,24 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler({BookingOverlapException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingOverlapException(final Exception e) {
+        log.warn("Пересечение бронирований: {}", e.getMessage(), e);
+        return new ErrorResponse(
+                "Пересечение бронирований: " + e.getMessage()
+        );
+    }
+
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final Exception e) {
+        log.warn("Конфликт параллельного изменения: {}", e.getMessage(), e);
+        return new ErrorResponse(
+                "Конфликт параллельного изменения: " + e.getMessage()
+        );
+    }
+
     @ExceptionHandler({DataIntegrityViolationException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleNotUniqueValueException(final Exception e) {
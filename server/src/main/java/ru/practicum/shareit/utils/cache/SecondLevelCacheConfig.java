@@ -0,0 +1,76 @@
+package ru.practicum.shareit.utils.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+public class SecondLevelCacheConfig {
+    public static final String USERS_REGION = "users";
+    public static final String ITEMS_REGION = "items";
+    public static final String REQUESTS_REGION = "requests";
+
+    private static final String REGION_PROPERTIES = "shareit.cache.regions.";
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ZERO;
+
+    private static final Map<String, String> REGIONS = Map.of(
+            USERS_REGION, USERS_REGION,
+            ITEMS_REGION, ITEMS_REGION,
+            REQUESTS_REGION, REQUESTS_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, "queries",
+            RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, "timestamps");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        REGIONS.forEach((region, key) -> {
+            long maximumSize = environment.getProperty(REGION_PROPERTIES + key + ".maximum-size",
+                    Long.class, DEFAULT_MAXIMUM_SIZE);
+            Duration ttl = environment.getProperty(REGION_PROPERTIES + key + ".ttl",
+                    Duration.class, DEFAULT_TTL);
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(ttl.isZero() ? OptionalLong.empty() : OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(region, configuration);
+            log.info("Регион кэша второго уровня {}: размер {}, время жизни {}", region, maximumSize, ttl);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> REGIONS.keySet().forEach(region ->
+                JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(region)));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
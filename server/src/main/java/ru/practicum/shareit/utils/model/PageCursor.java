@@ -0,0 +1,58 @@
+package ru.practicum.shareit.utils.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    public static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime time;
+    private final Long id;
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor first() {
+        return new PageCursor(LATEST, Long.MAX_VALUE);
+    }
+
+    public PageCursor requireTime() {
+        if (time == null) {
+            throw new UnsupportedOperationException("Неверный курсор " + encode());
+        }
+        return this;
+    }
+
+    public String encode() {
+        String value = time == null ? String.valueOf(id) : time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(value));
+            }
+            return new PageCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new UnsupportedOperationException("Неверный курсор " + cursor);
+        }
+    }
+}
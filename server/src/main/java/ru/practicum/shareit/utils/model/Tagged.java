@@ -0,0 +1,41 @@
+package ru.practicum.shareit.utils.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class Tagged<T> {
+    private static final String SEPARATOR = "-";
+
+    @Getter
+    private final String eTag;
+    @Getter
+    private final boolean personal;
+    private final Supplier<T> body;
+
+    private Tagged(String eTag, boolean personal, Supplier<T> body) {
+        this.eTag = eTag;
+        this.personal = personal;
+        this.body = body;
+    }
+
+    public static <T> Tagged<T> of(Supplier<T> body, Object... versions) {
+        return new Tagged<>(tagOf(versions), false, body);
+    }
+
+    public static <T> Tagged<T> personalOf(Supplier<T> body, Object... versions) {
+        return new Tagged<>(tagOf(versions), true, body);
+    }
+
+    public T getBody() {
+        return body.get();
+    }
+
+    private static String tagOf(Object... versions) {
+        return Arrays.stream(versions)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR, "\"", "\""));
+    }
+}
@@ -0,0 +1,20 @@
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS owner_id bigint;
+
+UPDATE bookings
+SET owner_id = (SELECT i.user_id FROM items i WHERE i.item_id = bookings.item_id)
+WHERE owner_id IS NULL;
+
+ALTER TABLE bookings
+    ALTER COLUMN owner_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx
+    ON bookings (owner_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_owner_status_start_idx
+    ON bookings (owner_id, status, start_time DESC, booking_id DESC);
+
+ALTER TABLE bookings
+    ADD CONSTRAINT fk_booking_owner
+        FOREIGN KEY (owner_id)
+            REFERENCES users (user_id);
@@ -0,0 +1,23 @@
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_events
+(
+    event_id     bigint                   NOT NULL,
+    booking_id   bigint                   NOT NULL,
+    item_id      bigint                   NOT NULL,
+    owner_id     bigint                   NOT NULL,
+    booker_id    bigint                   NOT NULL,
+    status       varchar(10)              NOT NULL,
+    created_time timestamp with time zone NOT NULL,
+    dispatched   boolean                  NOT NULL DEFAULT false,
+    CONSTRAINT booking_events_pkey PRIMARY KEY (event_id)
+);
+
+CREATE INDEX IF NOT EXISTS booking_events_pending_idx
+    ON booking_events (dispatched, event_id);
+
+CREATE INDEX IF NOT EXISTS booking_events_owner_idx
+    ON booking_events (owner_id, event_id);
+
+CREATE INDEX IF NOT EXISTS booking_events_booker_idx
+    ON booking_events (booker_id, event_id);
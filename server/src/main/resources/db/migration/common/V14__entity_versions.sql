@@ -0,0 +1,8 @@
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE requests
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,31 @@
+ALTER TABLE booking_events
+    ADD COLUMN IF NOT EXISTS sequence_number bigint;
+
+UPDATE booking_events
+SET sequence_number = event_id
+WHERE dispatched
+  AND sequence_number IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS booking_events_sequence_idx
+    ON booking_events (sequence_number);
+
+DROP INDEX IF EXISTS booking_events_owner_idx;
+
+DROP INDEX IF EXISTS booking_events_booker_idx;
+
+CREATE INDEX IF NOT EXISTS booking_events_owner_sequence_idx
+    ON booking_events (owner_id, sequence_number);
+
+CREATE INDEX IF NOT EXISTS booking_events_booker_sequence_idx
+    ON booking_events (booker_id, sequence_number);
+
+CREATE TABLE IF NOT EXISTS booking_event_cursor
+(
+    cursor_id            integer NOT NULL,
+    last_sequence_number bigint  NOT NULL,
+    CONSTRAINT booking_event_cursor_pkey PRIMARY KEY (cursor_id)
+);
+
+INSERT INTO booking_event_cursor (cursor_id, last_sequence_number)
+SELECT 1, COALESCE(MAX(sequence_number), 0)
+FROM booking_events;
@@ -0,0 +1,15 @@
+ALTER TABLE bookings_archive
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings_archive
+    ADD COLUMN IF NOT EXISTS owner_id bigint;
+
+UPDATE bookings_archive
+SET owner_id = (SELECT i.user_id FROM items i WHERE i.item_id = bookings_archive.item_id)
+WHERE owner_id IS NULL;
+
+ALTER TABLE bookings_archive
+    ALTER COLUMN owner_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS bookings_archive_owner_start_idx
+    ON bookings_archive (owner_id, start_time DESC, booking_id DESC);
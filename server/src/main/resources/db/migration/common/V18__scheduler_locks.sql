@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS scheduler_locks
+(
+    lock_name    varchar(64)              NOT NULL,
+    locked_until timestamp with time zone NOT NULL,
+    CONSTRAINT scheduler_locks_pkey PRIMARY KEY (lock_name)
+);
+
+INSERT INTO scheduler_locks (lock_name, locked_until)
+VALUES ('bookings_archive', TIMESTAMP '1970-01-01 00:00:00');
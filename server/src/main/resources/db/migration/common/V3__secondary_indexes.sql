@@ -0,0 +1,29 @@
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx
+    ON bookings (user_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx
+    ON bookings (user_id, status, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx
+    ON bookings (item_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx
+    ON bookings (item_id, end_time DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx
+    ON bookings (user_id, item_id, end_time);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx
+    ON items (user_id, item_id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx
+    ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS comments_item_created_idx
+    ON comments (item_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS requests_requester_created_idx
+    ON requests (user_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS requests_created_idx
+    ON requests (created DESC, request_id DESC);
@@ -0,0 +1,5 @@
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS comments_count bigint NOT NULL DEFAULT 0;
+
+UPDATE items
+SET comments_count = (SELECT count(*) FROM comments c WHERE c.item_id = items.item_id);
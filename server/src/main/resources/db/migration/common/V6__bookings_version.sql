@@ -0,0 +1,2 @@
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id bigint                   NOT NULL,
+    item_id    bigint                   NOT NULL,
+    user_id    bigint                   NOT NULL,
+    status     varchar(10)              NOT NULL,
+    start_time timestamp with time zone NOT NULL,
+    end_time   timestamp with time zone NOT NULL,
+    CONSTRAINT bookings_archive_pkey PRIMARY KEY (booking_id)
+);
+
+CREATE INDEX IF NOT EXISTS bookings_archive_booker_item_end_idx
+    ON bookings_archive (user_id, item_id, end_time);
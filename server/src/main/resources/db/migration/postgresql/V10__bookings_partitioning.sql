@@ -0,0 +1,96 @@
+ALTER TABLE bookings
+    RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned
+    DROP CONSTRAINT IF EXISTS bookings_approved_no_overlap;
+ALTER INDEX bookings_pkey RENAME TO bookings_unpartitioned_pkey;
+DROP INDEX IF EXISTS bookings_booker_start_idx;
+DROP INDEX IF EXISTS bookings_booker_status_start_idx;
+DROP INDEX IF EXISTS bookings_item_start_idx;
+DROP INDEX IF EXISTS bookings_item_end_idx;
+DROP INDEX IF EXISTS bookings_booker_item_end_idx;
+
+CREATE TABLE bookings
+(
+    booking_id bigint                   NOT NULL,
+    item_id    bigint                   NOT NULL,
+    user_id    bigint                   NOT NULL,
+    status     varchar(10)              NOT NULL,
+    start_time timestamp with time zone NOT NULL,
+    end_time   timestamp with time zone NOT NULL,
+    version    bigint                   NOT NULL DEFAULT 0,
+    CONSTRAINT bookings_pkey PRIMARY KEY (booking_id, start_time),
+    CONSTRAINT check_dates check (start_time < end_time),
+    CONSTRAINT fk_booking_item
+        FOREIGN KEY (item_id)
+            REFERENCES items (item_id),
+    CONSTRAINT fk_booking_booker
+        FOREIGN KEY (user_id)
+            REFERENCES users (user_id)
+) PARTITION BY RANGE (start_time);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_bookings_partition(month date) RETURNS void AS
+$$
+DECLARE
+    partition_start date := date_trunc('month', month)::date;
+    partition_end   date := (date_trunc('month', month) + interval '1 month')::date;
+    partition_name  text := 'bookings_' || to_char(partition_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    DROP TABLE IF EXISTS bookings_moved;
+    CREATE TEMP TABLE bookings_moved ON COMMIT DROP AS
+    SELECT *
+    FROM bookings_default
+    WHERE start_time >= partition_start
+      AND start_time < partition_end;
+    DELETE
+    FROM bookings_default
+    WHERE start_time >= partition_start
+      AND start_time < partition_end;
+    EXECUTE format('CREATE TABLE %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, partition_end);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I ' ||
+                   'EXCLUDE USING gist (item_id WITH =, tstzrange(start_time, end_time) WITH &&) ' ||
+                   'WHERE (status = ''APPROVED'')',
+                   partition_name, partition_name || '_no_overlap');
+    INSERT INTO bookings SELECT * FROM bookings_moved;
+    DROP TABLE bookings_moved;
+END;
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT MIN(start_time) FROM bookings_unpartitioned), now()))::date;
+BEGIN
+    WHILE month <= date_trunc('month', now() + interval '12 months')
+        LOOP
+            PERFORM create_bookings_partition(month);
+            month := (month + interval '1 month')::date;
+        END LOOP;
+END;
+$$;
+
+INSERT INTO bookings (booking_id, item_id, user_id, status, start_time, end_time, version)
+SELECT booking_id, item_id, user_id, status, start_time, end_time, version
+FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx
+    ON bookings (user_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx
+    ON bookings (user_id, status, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx
+    ON bookings (item_id, start_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx
+    ON bookings (item_id, end_time DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx
+    ON bookings (user_id, item_id, end_time);
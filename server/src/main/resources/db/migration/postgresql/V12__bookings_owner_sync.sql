@@ -0,0 +1,16 @@
+CREATE OR REPLACE FUNCTION sync_bookings_owner() RETURNS trigger AS
+$$
+BEGIN
+    UPDATE bookings
+    SET owner_id = NEW.user_id
+    WHERE item_id = NEW.item_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER items_owner_sync
+    AFTER UPDATE OF user_id
+    ON items
+    FOR EACH ROW
+    WHEN (OLD.user_id IS DISTINCT FROM NEW.user_id)
+EXECUTE FUNCTION sync_bookings_owner();
@@ -0,0 +1,42 @@
+-- Exclusion constraints do not span partitions: each month only rejects overlaps inside itself.
+-- Overlaps across months are prevented by the item row lock and the cross-partition re-check
+-- in BookingAvailabilityEngine.reserve/reserveAll; these constraints are a per-month backstop.
+DO
+$$
+DECLARE
+    booking record;
+BEGIN
+    FOR booking IN
+        SELECT b.booking_id, b.item_id, b.start_time, b.end_time
+        FROM bookings_default b
+        WHERE b.status = 'APPROVED'
+          AND EXISTS(SELECT 1
+                     FROM bookings_default earlier
+                     WHERE earlier.item_id = b.item_id
+                       AND earlier.status = 'APPROVED'
+                       AND earlier.booking_id < b.booking_id
+                       AND earlier.start_time < b.end_time
+                       AND earlier.end_time > b.start_time)
+        ORDER BY b.booking_id
+        LOOP
+            IF EXISTS(SELECT 1
+                      FROM bookings_default earlier
+                      WHERE earlier.item_id = booking.item_id
+                        AND earlier.status = 'APPROVED'
+                        AND earlier.booking_id < booking.booking_id
+                        AND earlier.start_time < booking.end_time
+                        AND earlier.end_time > booking.start_time) THEN
+                UPDATE bookings_default
+                SET status = 'REJECTED'
+                WHERE booking_id = booking.booking_id;
+                RAISE WARNING 'Бронирование % отклонено: пересекается с более ранним подтвержденным бронированием предмета %',
+                    booking.booking_id, booking.item_id;
+            END IF;
+        END LOOP;
+END
+$$;
+
+ALTER TABLE bookings_default
+    ADD CONSTRAINT bookings_default_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tstzrange(start_time, end_time) WITH &&)
+        WHERE (status = 'APPROVED');
@@ -0,0 +1,32 @@
+-- The per-partition exclusion constraints cannot see overlaps across months. This trigger checks the whole
+-- bookings table on every write path: it takes the item row lock, so approvals of one item are serialized,
+-- and rejects an approved booking that overlaps an approved booking in any partition.
+CREATE OR REPLACE FUNCTION check_bookings_no_overlap() RETURNS trigger AS
+$$
+BEGIN
+    IF NEW.status <> 'APPROVED' THEN
+        RETURN NULL;
+    END IF;
+    PERFORM 1 FROM items WHERE item_id = NEW.item_id FOR NO KEY UPDATE;
+    IF EXISTS(SELECT 1
+              FROM bookings b
+              WHERE b.item_id = NEW.item_id
+                AND b.status = 'APPROVED'
+                AND b.booking_id <> NEW.booking_id
+                AND b.start_time < NEW.end_time
+                AND b.end_time > NEW.start_time) THEN
+        RAISE EXCEPTION 'Бронирование % пересекается с подтвержденным бронированием предмета % (bookings_cross_partition_no_overlap)',
+            NEW.booking_id, NEW.item_id
+            USING ERRCODE = 'exclusion_violation',
+                CONSTRAINT = 'bookings_cross_partition_no_overlap',
+                TABLE = 'bookings';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_no_overlap_check
+    AFTER INSERT OR UPDATE OF item_id, status, start_time, end_time
+    ON bookings
+    FOR EACH ROW
+EXECUTE FUNCTION check_bookings_no_overlap();
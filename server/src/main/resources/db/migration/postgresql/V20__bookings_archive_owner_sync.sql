@@ -0,0 +1,12 @@
+CREATE OR REPLACE FUNCTION sync_bookings_owner() RETURNS trigger AS
+$$
+BEGIN
+    UPDATE bookings
+    SET owner_id = NEW.user_id
+    WHERE item_id = NEW.item_id;
+    UPDATE bookings_archive
+    SET owner_id = NEW.user_id
+    WHERE item_id = NEW.item_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
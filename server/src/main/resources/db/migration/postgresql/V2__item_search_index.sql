@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', item_name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx
+    ON items USING gin (search_vector)
+    WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx
+    ON items USING gin (item_name gin_trgm_ops)
+    WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx
+    ON items USING gin (description gin_trgm_ops)
+    WHERE is_available;
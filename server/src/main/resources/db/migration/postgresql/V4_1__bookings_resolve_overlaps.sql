@@ -0,0 +1,39 @@
+DO
+$$
+DECLARE
+    booking  record;
+    rejected bigint := 0;
+BEGIN
+    FOR booking IN
+        SELECT b.booking_id, b.item_id, b.start_time, b.end_time
+        FROM bookings b
+        WHERE b.status = 'APPROVED'
+          AND EXISTS(SELECT 1
+                     FROM bookings earlier
+                     WHERE earlier.item_id = b.item_id
+                       AND earlier.status = 'APPROVED'
+                       AND earlier.booking_id < b.booking_id
+                       AND earlier.start_time < b.end_time
+                       AND earlier.end_time > b.start_time)
+        ORDER BY b.booking_id
+        LOOP
+            IF EXISTS(SELECT 1
+                      FROM bookings earlier
+                      WHERE earlier.item_id = booking.item_id
+                        AND earlier.status = 'APPROVED'
+                        AND earlier.booking_id < booking.booking_id
+                        AND earlier.start_time < booking.end_time
+                        AND earlier.end_time > booking.start_time) THEN
+                UPDATE bookings
+                SET status = 'REJECTED'
+                WHERE booking_id = booking.booking_id;
+                RAISE NOTICE 'Бронирование % отклонено: пересекается с более ранним подтвержденным бронированием предмета %',
+                    booking.booking_id, booking.item_id;
+                rejected := rejected + 1;
+            END IF;
+        END LOOP;
+    IF rejected > 0 THEN
+        RAISE WARNING 'Отклонено пересекающихся подтвержденных бронирований: %', rejected;
+    END IF;
+END
+$$;
@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_approved_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tstzrange(start_time, end_time) WITH &&)
+        WHERE (status = 'APPROVED');
@@ -0,0 +1,5 @@
+SELECT setval('users_seq', COALESCE(MAX(user_id), 0) + 50, false) FROM users;
+SELECT setval('items_seq', COALESCE(MAX(item_id), 0) + 50, false) FROM items;
+SELECT setval('bookings_seq', COALESCE(MAX(booking_id), 0) + 50, false) FROM bookings;
+SELECT setval('requests_seq', COALESCE(MAX(request_id), 0) + 50, false) FROM requests;
+SELECT setval('comments_seq', COALESCE(MAX(comment_id), 0) + 50, false) FROM comments;
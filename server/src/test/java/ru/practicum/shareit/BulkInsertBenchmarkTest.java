@@ -0,0 +1,113 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BulkInsertBenchmarkTest {
+    private static final int ROWS = 200;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto booker;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(new UserDto(null, "benchmark-owner", "benchmark-owner@mail.com"));
+        booker = userService.createUser(new UserDto(null, "benchmark-booker", "benchmark-booker@mail.com"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("DELETE FROM booking_events WHERE booker_id = ?", booker.getId());
+        jdbcTemplate.update("DELETE FROM bookings WHERE user_id = ?", booker.getId());
+        jdbcTemplate.update("DELETE FROM items WHERE user_id = ?", owner.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE user_id IN (?, ?)", owner.getId(), booker.getId());
+    }
+
+    @Test
+    void bulkCreateBatchesInsertsTest() {
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new ItemDto(null, "item" + i, "description", true, null, null, null, null));
+        }
+        Measurement singleItems = measure(() -> items.forEach(item -> itemService.addItem(owner.getId(), item)));
+        List<ItemDto> created = new ArrayList<>();
+        Measurement bulkItems = measure(() -> created.addAll(itemService.addItems(owner.getId(), items)));
+
+        List<BookingPostDto> bookings = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < ROWS; i++) {
+            bookings.add(new BookingPostDto(null,
+                    created.get(i).getId(),
+                    start,
+                    start.plusHours(1)));
+        }
+        Measurement singleBookings = measure(() -> bookings.forEach(
+                booking -> bookingService.createBooking(booker.getId(), booking)));
+        Collection<BookingDto> bulkCreated = new ArrayList<>();
+        Measurement bulkBookings = measure(() -> bulkCreated.addAll(
+                bookingService.createBookings(booker.getId(), bookings)));
+
+        log.info("Вставка {} предметов: по одному {} запросов за {} мс, пакетом {} запросов за {} мс",
+                ROWS, singleItems.statements, singleItems.millis, bulkItems.statements, bulkItems.millis);
+        log.info("Вставка {} бронирований: по одному {} запросов за {} мс, пакетом {} запросов за {} мс",
+                ROWS, singleBookings.statements, singleBookings.millis, bulkBookings.statements, bulkBookings.millis);
+
+        Assertions.assertEquals(ROWS, created.size());
+        Assertions.assertEquals(ROWS, bulkCreated.size());
+        Assertions.assertTrue(bulkItems.statements * 10 < singleItems.statements);
+        Assertions.assertTrue(bulkBookings.statements * 10 < singleBookings.statements);
+    }
+
+    private Measurement measure(Runnable action) {
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        long started = System.nanoTime();
+        action.run();
+        Measurement measurement = new Measurement(statistics.getPrepareStatementCount(),
+                (System.nanoTime() - started) / 1_000_000);
+        statistics.setStatisticsEnabled(false);
+        return measurement;
+    }
+
+    @RequiredArgsConstructor
+    private static class Measurement {
+        private final long statements;
+        private final long millis;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Testcontainers(disabledWithoutDocker = true)
+public class PostgresMigrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        flyway().load().clean();
+    }
+
+    @Test
+    void overlappingApprovedBookingsAreRejectedBeforeConstraintTest() {
+        flyway().target("4").load().migrate();
+        long owner = insertUser("owner@mail.com");
+        long booker = insertUser("booker@mail.com");
+        long item = jdbc.queryForObject("INSERT INTO items (item_name, description, is_available, user_id) " +
+                "VALUES ('item', 'description', true, ?) RETURNING item_id", Long.class, owner);
+        long first = insertBooking(item, booker, "APPROVED", 0, 2);
+        long overlapping = insertBooking(item, booker, "APPROVED", 1, 3);
+        long adjacent = insertBooking(item, booker, "APPROVED", 2, 4);
+        long waiting = insertBooking(item, booker, "WAITING", 0, 2);
+
+        flyway().load().migrate();
+
+        Assertions.assertEquals("APPROVED", statusOf(first));
+        Assertions.assertEquals("REJECTED", statusOf(overlapping));
+        Assertions.assertEquals("APPROVED", statusOf(adjacent));
+        Assertions.assertEquals("WAITING", statusOf(waiting));
+    }
+
+    @Test
+    void skippedMigrationNeedsOutOfOrderRolloutTest() {
+        flyway().load().migrate();
+        jdbc.update("DELETE FROM flyway_schema_history WHERE version = '4.1'");
+
+        Assertions.assertThrows(FlywayException.class, () -> flyway().load().validate());
+        flyway().outOfOrder(true).load().migrate();
+
+        Assertions.assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM flyway_schema_history " +
+                "WHERE version = '4.1' AND success", Integer.class));
+        Assertions.assertDoesNotThrow(() -> flyway().load().validate());
+    }
+
+    private FluentConfiguration flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql");
+    }
+
+    private long insertUser(String email) {
+        return jdbc.queryForObject("INSERT INTO users (email, user_name) VALUES (?, 'user') RETURNING user_id",
+                Long.class, email);
+    }
+
+    private long insertBooking(long itemId, long bookerId, String status, int startDay, int endDay) {
+        return jdbc.queryForObject("INSERT INTO bookings (item_id, user_id, status, start_time, end_time) " +
+                        "VALUES (?, ?, ?, ?, ?) RETURNING booking_id",
+                Long.class,
+                itemId,
+                bookerId,
+                status,
+                Timestamp.valueOf(start.plusDays(startDay)),
+                Timestamp.valueOf(start.plusDays(endDay)));
+    }
+
+    private String statusOf(long bookingId) {
+        return jdbc.queryForObject("SELECT status FROM bookings WHERE booking_id = ?", String.class, bookingId);
+    }
+}
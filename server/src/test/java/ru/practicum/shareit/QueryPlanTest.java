@@ -0,0 +1,247 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.model.PageCursor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$RecordingStatementInspector")
+public class QueryPlanTest {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private BookingEventStorage bookingEventStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private CommentStorage commentStorage;
+
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+
+    private final User owner = new User();
+    private final User booker = new User();
+    private final Item item = new Item();
+    private final ItemRequest itemRequest = new ItemRequest();
+
+    @BeforeEach
+    public void populateData() {
+        owner.setName("owner");
+        owner.setEmail("owner@mail.com");
+        em.persist(owner);
+        booker.setName("booker");
+        booker.setEmail("booker@mail.com");
+        em.persist(booker);
+        itemRequest.setDescription("request");
+        itemRequest.setRequester(booker);
+        itemRequest.setCreated(LocalDateTime.now());
+        em.persist(itemRequest);
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequest(itemRequest);
+        em.persist(item);
+        em.persist(new Booking(item,
+                LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1),
+                booker,
+                BookingStatus.APPROVED));
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setText("comment");
+        comment.setCreated(LocalDateTime.now());
+        em.persist(comment);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void bookerQueriesUseIndexesTest() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = PageCursor.LATEST;
+        Long id = Long.MAX_VALUE;
+        PageRequest page = PageRequest.of(0, 10);
+        assertNoTableScan(() -> bookingStorage.findAllByBookerOrderByStartDesc(booker, page));
+        assertNoTableScan(() -> bookingStorage.findAllByBookerAndStatusOrderByStartDesc(booker,
+                BookingStatus.WAITING, page));
+        assertNoTableScan(() -> bookingStorage.findAllByBookerAndEndBeforeOrderByStartDesc(booker, now, page));
+        assertNoTableScan(() -> bookingStorage.findAllByBookerAndStartAfterOrderByStartDesc(booker, now, page));
+        assertNoTableScan(() -> bookingStorage.findBookingByBookerAndDate(booker, now, page));
+        assertNoTableScan(() -> bookingStorage.findAllByBookerAfter(booker, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findAllByBookerAndStatusAfter(booker,
+                BookingStatus.WAITING, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findPastByBookerAfter(booker, now, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findFutureByBookerAfter(booker, now, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findCurrentByBookerAfter(booker, now, start, id, page));
+        assertNoTableScan(() -> bookingStorage.existsPastBooking(booker.getId(), item.getId(), now));
+    }
+
+    @Test
+    void ownerQueriesUseIndexesTest() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = PageCursor.LATEST;
+        Long id = Long.MAX_VALUE;
+        PageRequest page = PageRequest.of(0, 10);
+        assertNoTableScan(() -> bookingStorage.findAllByItemOwnerIsOrderByStartDesc(owner, page));
+        assertNoTableScan(() -> bookingStorage.findAllByItemOwnerIsAndStatusOrderByStartDesc(owner,
+                BookingStatus.WAITING, page));
+        assertNoTableScan(() -> bookingStorage.findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(owner, now, page));
+        assertNoTableScan(() -> bookingStorage.findAllByItemOwnerIsAndStartAfterOrderByStartDesc(owner, now, page));
+        assertNoTableScan(() -> bookingStorage.findBookingByOwnerAndDate(owner, now, page));
+        assertNoTableScan(() -> bookingStorage.findAllByOwnerAfter(owner, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findAllByOwnerAndStatusAfter(owner,
+                BookingStatus.WAITING, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findPastByOwnerAfter(owner, now, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findFutureByOwnerAfter(owner, now, start, id, page));
+        assertNoTableScan(() -> bookingStorage.findCurrentByOwnerAfter(owner, now, start, id, page));
+    }
+
+    @Test
+    void ownerQueriesLookUpBookingsByOwnerTest() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        assertIndexLookup("OWNER_ID", () -> bookingStorage.findAllByItemOwnerIsOrderByStartDesc(owner, page));
+        assertIndexLookup("OWNER_ID", () -> bookingStorage.findAllByItemOwnerIsAndStatusOrderByStartDesc(owner,
+                BookingStatus.WAITING, page));
+        assertIndexLookup("OWNER_ID", () -> bookingStorage.findBookingByOwnerAndDate(owner, now, page));
+        assertIndexLookup("OWNER_ID", () -> bookingStorage.findPastByOwnerAfter(owner,
+                now, PageCursor.LATEST, Long.MAX_VALUE, page));
+        assertIndexLookup("OWNER_ID", () -> bookingStorage.streamAllByOwner(owner).close());
+    }
+
+    @Test
+    void itemQueriesUseIndexesTest() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        assertNoTableScan(() -> itemStorage.findAllByOwnerIsOrderByIdAsc(owner, page));
+        assertNoTableScan(() -> itemStorage.findAllByOwnerIsAndIdGreaterThanOrderByIdAsc(owner, 0L, page));
+        assertNoTableScan(() -> itemStorage.findAllByRequestIdIn(List.of(itemRequest.getId())));
+        assertNoTableScan(() -> bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(item, now));
+        assertNoTableScan(() -> bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(item, now));
+        assertNoTableScan(() -> bookingStorage.findLastAndNextBookings(List.of(item.getId()), now));
+        assertNoTableScan(() -> itemStorage.findFreeAvailableItemsAfter(
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now, now.plusDays(1), 0L, page));
+        assertNoTableScan(() -> commentStorage.findLatestByItemIdIn(List.of(item.getId()), 10));
+        assertNoTableScan(() -> commentStorage.findByItemIdAfter(item.getId(), PageCursor.LATEST, Long.MAX_VALUE, page));
+    }
+
+    @Test
+    void bookingEventQueriesUseIndexesTest() {
+        PageRequest page = PageRequest.of(0, 10);
+        assertNoTableScan(() -> bookingEventStorage.findAllByDispatchedFalseOrderByIdAsc(page));
+        assertNoTableScan(() -> bookingEventStorage.findAllByUserAfter(booker.getId(), 0L, page));
+        assertNoTableScan(() -> bookingEventStorage.findAllBySequenceNumberGreaterThanOrderBySequenceNumberAsc(0L, page));
+    }
+
+    @Test
+    void requestQueriesUseIndexesTest() {
+        assertNoTableScan(() -> itemRequestStorage.findByRequesterIsOrderByCreatedDesc(booker));
+    }
+
+    @Test
+    void secondaryIndexesCreatedTest() {
+        List<String> indexes = em.getEntityManager().createNativeQuery("SELECT index_name " +
+                        "FROM information_schema.indexes " +
+                        "WHERE table_schema = 'PUBLIC'")
+                .getResultList();
+        Assertions.assertTrue(indexes.containsAll(List.of(
+                "BOOKINGS_BOOKER_START_IDX",
+                "BOOKINGS_BOOKER_STATUS_START_IDX",
+                "BOOKINGS_ITEM_START_IDX",
+                "BOOKINGS_ITEM_END_IDX",
+                "BOOKINGS_BOOKER_ITEM_END_IDX",
+                "BOOKINGS_OWNER_START_IDX",
+                "BOOKINGS_OWNER_STATUS_START_IDX",
+                "BOOKING_EVENTS_PENDING_IDX",
+                "BOOKING_EVENTS_SEQUENCE_IDX",
+                "BOOKING_EVENTS_OWNER_SEQUENCE_IDX",
+                "BOOKING_EVENTS_BOOKER_SEQUENCE_IDX",
+                "ITEMS_OWNER_IDX",
+                "ITEMS_REQUEST_IDX",
+                "COMMENTS_ITEM_CREATED_IDX",
+                "REQUESTS_REQUESTER_CREATED_IDX",
+                "REQUESTS_CREATED_IDX")));
+    }
+
+    private void assertNoTableScan(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        Assertions.assertFalse(STATEMENTS.isEmpty());
+        String plan = explain(STATEMENTS.get(0));
+        Assertions.assertFalse(plan.contains(".tableScan"), "Full table scan in plan:\n" + plan);
+    }
+
+    private void assertIndexLookup(String column, Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        Assertions.assertFalse(STATEMENTS.isEmpty());
+        String plan = explain(STATEMENTS.get(0));
+        Assertions.assertTrue(Pattern.compile("FROM \"PUBLIC\"\\.\"BOOKINGS\" \"\\w+\"\\s+/\\* PUBLIC\\.\\w+: "
+                        + column + " = ").matcher(plan).find(),
+                "Bookings are not looked up by " + column + " in plan:\n" + plan);
+    }
+
+    private String explain(String statement) {
+        return em.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement)) {
+                for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                    explain.setNull(i, Types.NULL);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
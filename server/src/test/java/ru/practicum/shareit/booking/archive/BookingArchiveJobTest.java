@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+public class BookingArchiveJobTest {
+    private BookingStorage bookingStorage;
+    private BookingArchiveJob job;
+
+    @BeforeEach
+    public void setUp() {
+        bookingStorage = Mockito.mock(BookingStorage.class);
+        job = new BookingArchiveJob(bookingStorage, 12, 12, Duration.ofHours(1));
+    }
+
+    @Test
+    void runArchivesWhenLockAcquiredTest() {
+        Mockito.when(bookingStorage.tryLockArchive(any(), any())).thenReturn(true);
+
+        job.run();
+
+        Mockito.verify(bookingStorage).preparePartitions(any(), anyInt());
+        Mockito.verify(bookingStorage).archiveEndedBefore(any());
+    }
+
+    @Test
+    void runSkipsWhenAnotherInstanceHoldsLockTest() {
+        Mockito.when(bookingStorage.tryLockArchive(any(), any())).thenReturn(false);
+
+        job.run();
+
+        Mockito.verify(bookingStorage, Mockito.never()).preparePartitions(any(), anyInt());
+        Mockito.verify(bookingStorage, Mockito.never()).archiveEndedBefore(any());
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+public class BookingAvailabilityEngineTest {
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final LocalDateTime end = start.plusDays(2);
+    private BookingStorage bookingStorage;
+    private BookingAvailabilityEngine availability;
+
+    @BeforeEach
+    public void setUp() {
+        bookingStorage = Mockito.mock(BookingStorage.class);
+        availability = new BookingAvailabilityEngine(bookingStorage, Mockito.mock(ItemStorage.class));
+    }
+
+    @Test
+    void refreshWaitingOccupiesItemTest() {
+        refresh(BookingStatus.WAITING);
+
+        Assertions.assertFalse(availability.isFree(1L, start, end));
+        Assertions.assertDoesNotThrow(() -> availability.requireAvailable(1L, start, end));
+    }
+
+    @Test
+    void refreshApprovedReservesItemTest() {
+        refresh(BookingStatus.WAITING);
+        refresh(BookingStatus.APPROVED);
+
+        Assertions.assertFalse(availability.isFree(1L, start, end));
+        Assertions.assertThrows(BookingOverlapException.class, () -> availability.requireAvailable(1L, start, end));
+        Assertions.assertTrue(availability.isFree(1L, end, end.plusDays(1)));
+    }
+
+    @Test
+    void refreshRejectedReleasesItemTest() {
+        refresh(BookingStatus.WAITING);
+        refresh(BookingStatus.REJECTED);
+
+        Assertions.assertTrue(availability.isFree(1L, start, end));
+    }
+
+    @Test
+    void refreshCanceledReleasesItemTest() {
+        refresh(BookingStatus.APPROVED);
+        refresh(BookingStatus.CANCELED);
+
+        Assertions.assertTrue(availability.isFree(1L, start, end));
+        Assertions.assertDoesNotThrow(() -> availability.requireAvailable(1L, start, end));
+    }
+
+    @Test
+    void refreshWithoutBookingsSkipsStorageTest() {
+        availability.refresh(List.of());
+
+        Mockito.verifyNoInteractions(bookingStorage);
+    }
+
+    private void refresh(BookingStatus status) {
+        Mockito
+                .when(bookingStorage.findDetailsByIdIn(anyCollection()))
+                .thenReturn(List.of(new BookingDetails(1L, start, end, status, 1L, "item", "description", true,
+                        null, 2L, 3L, "booker", "booker@mail.com", 0, 0, 0)));
+        availability.refresh(List.of(1L));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+public class BookingIntervalIndexTest {
+    private final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    public void populateData() {
+        index = new BookingIntervalIndex();
+        index.put(1L, 1L, now.plusDays(1), now.plusDays(3), now);
+        index.put(1L, 2L, now.plusDays(5), now.plusDays(6), now);
+        index.put(2L, 3L, now.plusDays(1), now.plusDays(10), now);
+    }
+
+    @Test
+    void overlapsTest() {
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(2), now.plusDays(4)));
+        Assertions.assertTrue(index.overlaps(1L, now, now.plusDays(10)));
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(5).plusHours(1), now.plusDays(5).plusHours(2)));
+        Assertions.assertTrue(index.overlaps(2L, now.plusDays(4), now.plusDays(5)));
+    }
+
+    @Test
+    void adjacentIntervalsDoNotOverlapTest() {
+        Assertions.assertFalse(index.overlaps(1L, now.plusDays(3), now.plusDays(5)));
+        Assertions.assertFalse(index.overlaps(1L, now, now.plusDays(1)));
+        Assertions.assertFalse(index.overlaps(1L, now.plusDays(6), now.plusDays(7)));
+        Assertions.assertFalse(index.overlaps(3L, now, now.plusDays(10)));
+    }
+
+    @Test
+    void overlapsNestedIntervalsTest() {
+        index.put(1L, 4L, now.plusDays(2), now.plusDays(2).plusHours(1), now);
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(2).plusHours(2), now.plusDays(2).plusHours(3)));
+        index.remove(1L, 1L);
+        Assertions.assertFalse(index.overlaps(1L, now.plusDays(2).plusHours(2), now.plusDays(2).plusHours(3)));
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(2), now.plusDays(2).plusHours(3)));
+    }
+
+    @Test
+    void putReplacesBookingTest() {
+        index.put(1L, 1L, now.plusDays(8), now.plusDays(9), now);
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertFalse(index.overlaps(1L, now.plusDays(2), now.plusDays(3)));
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(8), now.plusDays(10)));
+    }
+
+    @Test
+    void putDropsFinishedIntervalsTest() {
+        index.put(1L, 4L, now.plusDays(8), now.plusDays(9), now.plusDays(4));
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertFalse(index.overlaps(1L, now.plusDays(2), now.plusDays(3)));
+        Assertions.assertTrue(index.overlaps(1L, now.plusDays(8), now.plusDays(10)));
+    }
+}
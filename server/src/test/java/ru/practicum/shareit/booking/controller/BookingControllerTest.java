@@ -5,27 +5,46 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.events.BookingEventBroker;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.utils.BookingState;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -36,6 +55,12 @@ public class BookingControllerTest {
     @MockBean
     BookingService bookingService;
 
+    @MockBean
+    UserService userService;
+
+    @MockBean
+    BookingEventBroker bookingEventBroker;
+
     @Autowired
     private MockMvc mvc;
 
@@ -80,6 +105,22 @@ public class BookingControllerTest {
 
     }
 
+    @Test
+    void createBookingsTest() throws Exception {
+        when(bookingService.createBookings(anyLong(), anyList()))
+                .thenReturn(List.of(bookingDto));
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(bookingPostDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].status", is(bookingDto.getStatus().toString()), String.class));
+    }
+
     @Test
     void patchBookingTest() throws Exception {
         when(bookingService.patchBookingStatus(anyLong(), anyLong(), anyBoolean()))
@@ -102,16 +143,42 @@ public class BookingControllerTest {
 
     }
 
+    @Test
+    void patchBookingsTest() throws Exception {
+        when(bookingService.patchBookingStatuses(anyLong(), anyCollection()))
+                .thenReturn(List.of(new BookingStatusResultDto(1L, BookingStatus.APPROVED,
+                                BookingStatusOutcome.UPDATED, null),
+                        new BookingStatusResultDto(2L, BookingStatus.REJECTED,
+                                BookingStatusOutcome.CONFLICT, "Статус аренды с id 2 изменен другим запросом")));
+        mvc.perform(patch("/bookings/status")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(new BookingStatusPatchDto(1L, true),
+                                new BookingStatusPatchDto(2L, false))))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].status", is(BookingStatus.APPROVED.toString()), String.class))
+                .andExpect(jsonPath("$[0].outcome", is(BookingStatusOutcome.UPDATED.toString()), String.class))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].outcome", is(BookingStatusOutcome.CONFLICT.toString()), String.class))
+                .andExpect(jsonPath("$[1].error", is("Статус аренды с id 2 изменен другим запросом"), String.class));
+    }
+
     @Test
     void getBookingTest() throws Exception {
-        when(bookingService.getBooking(anyLong(), anyLong()))
-                .thenReturn(bookingDto);
+        when(bookingService.getTaggedBooking(anyLong(), anyLong()))
+                .thenReturn(Tagged.personalOf(() -> bookingDto, 1L, 2L, 0L, 0L));
         mvc.perform(get("/bookings/1")
                         .header("X-Sharer-User-Id", 1L)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2-0-0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
                 .andExpect(jsonPath("$.id", is(bookingDto.getId()), Long.class))
                 .andExpect(jsonPath("$.item.id", is(bookingDto.getItem().getId()), Long.class))
                 .andExpect(jsonPath("$.start",
@@ -122,6 +189,21 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(bookingDto.getStatus().toString()), String.class));
     }
 
+    @Test
+    void getBookingNotModifiedTest() throws Exception {
+        when(bookingService.getTaggedBooking(anyLong(), anyLong()))
+                .thenReturn(Tagged.personalOf(() -> {
+                    throw new AssertionError("Тело ответа не должно формироваться");
+                }, 1L, 2L, 0L, 0L));
+        mvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-2-0-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2-0-0\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getBookingsOfUserTest() throws Exception {
         when(bookingService.getBookingsOfUser(anyLong(), any(BookingState.class), anyInt(), anyInt()))
@@ -211,4 +293,88 @@ public class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getBookingsOfUserWithCursorTest() throws Exception {
+        when(bookingService.getBookingsOfUser(anyLong(), any(BookingState.class), nullable(PageCursor.class), anyInt()))
+                .thenReturn(List.of(bookingDto));
+        String nextCursor = new PageCursor(bookingDto.getStart(), bookingDto.getId()).encode();
+        mvc.perform(get("/bookings?state=ALL&size=1&cursor=")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, nextCursor));
+        mvc.perform(get("/bookings/owner?state=ALL&size=2&cursor=" + nextCursor)
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+        mvc.perform(get("/bookings?state=ALL&size=1&cursor=not-a-cursor")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportBookingsOfUserItemsTest() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookingDto> sink = invocation.getArgument(1);
+            sink.accept(bookingDto);
+            sink.accept(bookingDto);
+            return null;
+        }).when(bookingService).exportBookingsOfUserItems(anyLong(), any());
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = mapper.writeValueAsString(bookingDto) + "\n";
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void exportBookingsOfUnknownUserTest() throws Exception {
+        when(userService.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Не найден пользователь с id 1"));
+        mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void subscribeToBookingEventsTest() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingEventBroker.subscribe(1L, 5L))
+                .thenReturn(emitter);
+        MvcResult result = mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Last-Event-ID", 5L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event()
+                .id("6")
+                .name(BookingEventBroker.EVENT_NAME)
+                .data(new BookingEventDto(6L, 1L, 1L, 1L, 2L, BookingStatus.WAITING, null),
+                        MediaType.APPLICATION_JSON));
+        emitter.complete();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:6\nevent:booking\ndata:{\"id\":6,")));
+    }
+
+    @Test
+    void subscribeToBookingEventsOfUnknownUserTest() throws Exception {
+        when(userService.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Не найден пользователь с id 1"));
+        mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
 }
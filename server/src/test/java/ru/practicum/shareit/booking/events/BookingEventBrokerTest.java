@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class BookingEventBrokerTest {
+    private static final long OWNER_ID = 1L;
+
+    private BookingEventStorage bookingEventStorage;
+    private BookingEventBroker broker;
+
+    @BeforeEach
+    public void setUp() {
+        bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        broker = new BookingEventBroker(bookingEventStorage, 60_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void subscribeReplaysEveryPageTest() {
+        Mockito.when(bookingEventStorage.findAllByUserAfter(eq(OWNER_ID), eq(5L), any(Pageable.class)))
+                .thenReturn(events(6, 105));
+        Mockito.when(bookingEventStorage.findAllByUserAfter(eq(OWNER_ID), eq(105L), any(Pageable.class)))
+                .thenReturn(events(106, 106));
+
+        SseEmitter emitter = broker.subscribe(OWNER_ID, 5L);
+
+        Assertions.assertEquals(LongStream.rangeClosed(6, 106).boxed().collect(Collectors.toList()), sent(emitter));
+    }
+
+    @Test
+    void eventsPublishedDuringReplayFollowReplayedOnesTest() {
+        Mockito.when(bookingEventStorage.findAllByUserAfter(eq(OWNER_ID), eq(5L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    broker.publish(event(7));
+                    broker.publish(event(8));
+                    return events(6, 7);
+                });
+
+        SseEmitter emitter = broker.subscribe(OWNER_ID, 5L);
+        broker.publish(event(9));
+
+        Assertions.assertEquals(List.of(6L, 7L, 8L, 9L), sent(emitter));
+    }
+
+    @Test
+    void subscribeWithoutLastEventIdOnlyGetsNewEventsTest() {
+        SseEmitter emitter = broker.subscribe(OWNER_ID, null);
+        broker.publish(event(10));
+
+        Assertions.assertEquals(List.of(10L), sent(emitter));
+        Mockito.verifyNoInteractions(bookingEventStorage);
+    }
+
+    private static List<BookingEvent> events(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(sequenceNumber -> {
+                    BookingEvent event = new BookingEvent(sequenceNumber, 1L, OWNER_ID, 2L, BookingStatus.WAITING);
+                    event.setSequenceNumber(sequenceNumber);
+                    return event;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static BookingEventDto event(long sequenceNumber) {
+        return new BookingEventDto(sequenceNumber,
+                sequenceNumber,
+                1L,
+                OWNER_ID,
+                2L,
+                BookingStatus.WAITING,
+                LocalDateTime.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> sent(SseEmitter emitter) {
+        Collection<ResponseBodyEmitter.DataWithMediaType> sent = (Collection<ResponseBodyEmitter.DataWithMediaType>)
+                ReflectionTestUtils.getField(emitter, ResponseBodyEmitter.class, "earlySendAttempts");
+        return sent.stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .filter(BookingEventDto.class::isInstance)
+                .map(data -> ((BookingEventDto) data).getId())
+                .collect(Collectors.toList());
+    }
+}
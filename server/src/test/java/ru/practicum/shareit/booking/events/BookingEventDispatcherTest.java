@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingEventCursorStorage;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.argThat;
+
+@Transactional
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingEventDispatcherTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingEventStorage bookingEventStorage;
+    private final BookingEventCursorStorage cursorStorage;
+
+    @Test
+    void bookingChangesAreDispatchedFromOutboxTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item1",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        BookingDto booking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                null,
+                item.getId(),
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2)
+        ));
+        bookingService.patchBookingStatus(owner.getId(), booking.getId(), true);
+        BookingEventBroker broker = Mockito.mock(BookingEventBroker.class);
+        BookingEventDispatcher dispatcher = new BookingEventDispatcher(bookingEventStorage, cursorStorage, 24);
+        BookingAvailabilityEngine availability = Mockito.mock(BookingAvailabilityEngine.class);
+        BookingEventRelay relay = new BookingEventRelay(bookingEventStorage, cursorStorage, broker, availability);
+        relay.start();
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        relay.poll();
+        relay.poll();
+
+        ArgumentCaptor<BookingEventDto> published = ArgumentCaptor.forClass(BookingEventDto.class);
+        Mockito.verify(broker, Mockito.times(2)).publish(published.capture());
+        List<BookingEventDto> events = published.getAllValues().stream()
+                .filter(event -> event.getBookingId().equals(booking.getId()))
+                .collect(Collectors.toList());
+        assertThat(events.stream().map(BookingEventDto::getStatus).collect(Collectors.toList()),
+                contains(BookingStatus.WAITING, BookingStatus.APPROVED));
+        assertThat(events.get(0).getOwnerId(), equalTo(owner.getId()));
+        assertThat(events.get(0).getBookerId(), equalTo(booker.getId()));
+        assertThat(events.get(1).getId(), equalTo(events.get(0).getId() + 1));
+        Mockito.verify(availability).refresh(argThat(bookingIds -> bookingIds.contains(booking.getId())));
+        assertThat(bookingEventStorage.findAllByDispatchedFalseOrderByIdAsc(PageRequest.of(0, 10)), empty());
+        assertThat(bookingEventStorage.findAllByUserAfter(owner.getId(), events.get(0).getId(), PageRequest.of(0, 10))
+                        .stream()
+                        .map(BookingEvent::getStatus)
+                        .collect(Collectors.toList()),
+                contains(BookingStatus.APPROVED));
+    }
+}
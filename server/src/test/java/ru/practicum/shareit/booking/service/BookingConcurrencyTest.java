@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private static final int BOOKINGS = 40;
+    private static final int THREADS = 8;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Long itemId;
+
+    @AfterEach
+    public void cleanUp() {
+        if (itemId != null) {
+            jdbcTemplate.update("DELETE FROM bookings WHERE item_id = ?", itemId);
+            jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", itemId);
+        }
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId);
+        }
+    }
+
+    @Test
+    void concurrentApprovalsNeverOverlapTest() throws Exception {
+        UserDto owner = createUser("concurrency-owner");
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        itemId = item.getId();
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<BookingDto> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            UserDto booker = createUser("concurrency-booker" + i);
+            LocalDateTime start = from.plusHours(ThreadLocalRandom.current().nextInt(0, 240));
+            bookings.add(bookingService.createBooking(booker.getId(), new BookingPostDto(
+                    null,
+                    itemId,
+                    start,
+                    start.plusHours(ThreadLocalRandom.current().nextInt(1, 48))
+            )));
+        }
+        Collections.shuffle(bookings);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(bookings.stream()
+                    .map((BookingDto booking) -> (Callable<Boolean>) () -> approve(owner.getId(), booking.getId()))
+                    .collect(Collectors.toList()));
+        } finally {
+            executor.shutdown();
+        }
+        long approvedCount = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                approvedCount++;
+            }
+        }
+
+        List<BookingDto> approved = bookings.stream()
+                .map((BookingDto booking) -> bookingService.getBooking(owner.getId(), booking.getId()))
+                .filter((BookingDto booking) -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.toList());
+        Assertions.assertTrue(approvedCount > 0);
+        Assertions.assertEquals(approvedCount, approved.size());
+        for (BookingDto first : approved) {
+            for (BookingDto second : approved) {
+                Assertions.assertFalse(!first.getId().equals(second.getId())
+                                && first.getStart().isBefore(second.getEnd())
+                                && second.getStart().isBefore(first.getEnd()),
+                        "Bookings " + first.getId() + " and " + second.getId() + " overlap");
+            }
+        }
+    }
+
+    private boolean approve(Long ownerId, Long bookingId) {
+        try {
+            bookingService.patchBookingStatus(ownerId, bookingId, true);
+            return true;
+        } catch (BookingOverlapException e) {
+            return false;
+        }
+    }
+
+    private UserDto createUser(String name) {
+        UserDto user = userService.createUser(new UserDto(null, name, name + "@mail.com"));
+        userIds.add(user.getId());
+        return user;
+    }
+}
@@ -1,24 +1,37 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.utils.BookingState;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPostDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -29,10 +42,13 @@ import static org.hamcrest.Matchers.*;
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class BookingServiceIntegrationTest {
+    private static final long SEQUENCE_INCREMENT = 50;
+
     private final EntityManager em;
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
 
     @Test
     void getBookingsOfUserItemsTest() {
@@ -164,6 +180,171 @@ public class BookingServiceIntegrationTest {
         assertThat(resultContainsAllExpectedIds(rejectedBookings, expectedRejected), equalTo(true));
     }
 
+    @Test
+    void getBookingsOfUserItemsDoesNotCountTest() {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemDto itemDto = itemService.addItem(ownerDto.getId(), new ItemDto(
+                null,
+                "item1",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        Item item = em.find(Item.class, itemDto.getId());
+        User booker = em.find(User.class, bookerDto.getId());
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        for (int i = 0; i < 50; i++) {
+            em.persist(new Booking(item, start.plusDays(i), start.plusDays(i).plusHours(1), booker,
+                    BookingStatus.APPROVED));
+        }
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        statistics.clear();
+        Collection<BookingDto> bookings = bookingService.getBookingsOfUserItems(ownerDto.getId(),
+                BookingState.ALL,
+                20,
+                10);
+        long queries = statistics.getQueryExecutionCount();
+        String[] executed = statistics.getQueries();
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(bookings.size(), equalTo(10));
+        assertThat(queries, equalTo(1L));
+        assertThat(Arrays.stream(executed).noneMatch((String query) -> query.contains("count(")), equalTo(true));
+    }
+
+    @Test
+    void bookingWritePathsLoadOnlyRequiredRowsTest() {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemRequestDto request = itemRequestService.createRequest(bookerDto.getId(),
+                new ItemRequestPostDto("request"));
+        ItemDto itemDto = itemService.addItem(ownerDto.getId(), new ItemDto(
+                null,
+                "item1",
+                "description",
+                true,
+                request.getId(),
+                null,
+                null,
+                null
+        ));
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        long sequences = sequenceValues();
+        statistics.clear();
+        BookingDto booking = bookingService.createBooking(bookerDto.getId(), new BookingPostDto(
+                null,
+                itemDto.getId(),
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2)
+        ));
+        em.flush();
+        long createStatements = statistics.getPrepareStatementCount();
+        long createLoads = statistics.getEntityLoadCount();
+        createStatements -= sequenceCallsSince(sequences);
+
+        em.clear();
+        sequences = sequenceValues();
+        statistics.clear();
+        BookingDto approved = bookingService.patchBookingStatus(ownerDto.getId(), booking.getId(), true);
+        em.flush();
+        long patchStatements = statistics.getPrepareStatementCount();
+        long patchLoads = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+        patchStatements -= sequenceCallsSince(sequences);
+
+        assertThat(booking.getItem().getRequestId(), equalTo(request.getId()));
+        assertThat(approved.getBooker().getName(), equalTo("booker"));
+        assertThat(approved.getItem().getName(), equalTo("item1"));
+        assertThat(createStatements, equalTo(4L));
+        assertThat(createLoads, equalTo(2L));
+        assertThat(patchStatements, equalTo(5L));
+        assertThat(patchLoads, equalTo(3L));
+    }
+
+    @Test
+    void patchBookingStatusesUsesConstantStatementsTest() {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        List<BookingStatusPatchDto> patches = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            ItemDto itemDto = itemService.addItem(ownerDto.getId(), new ItemDto(
+                    null,
+                    "item" + i,
+                    "description",
+                    true,
+                    null,
+                    null,
+                    null,
+                    null
+            ));
+            for (int j = 0; j < 2; j++) {
+                BookingDto booking = bookingService.createBooking(bookerDto.getId(), new BookingPostDto(
+                        null,
+                        itemDto.getId(),
+                        start.plusHours(j),
+                        start.plusHours(j + 1)
+                ));
+                patches.add(new BookingStatusPatchDto(booking.getId(), i != 0));
+            }
+        }
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        long sequences = sequenceValues();
+        statistics.clear();
+        Collection<BookingStatusResultDto> results = bookingService.patchBookingStatuses(ownerDto.getId(), patches);
+        em.flush();
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        statements -= sequenceCallsSince(sequences);
+
+        assertThat(results.stream().map(BookingStatusResultDto::getError).allMatch(Objects::isNull), equalTo(true));
+        assertThat(results.stream().map(BookingStatusResultDto::getStatus).collect(Collectors.toList()),
+                contains(BookingStatus.REJECTED,
+                        BookingStatus.REJECTED,
+                        BookingStatus.APPROVED,
+                        BookingStatus.APPROVED,
+                        BookingStatus.APPROVED,
+                        BookingStatus.APPROVED));
+        assertThat(em.find(Booking.class, patches.get(0).getBookingId()).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+        assertThat(em.find(Booking.class, patches.get(5).getBookingId()).getStatus(),
+                equalTo(BookingStatus.APPROVED));
+        assertThat(statements, equalTo(7L));
+    }
+
+    private long sequenceValues() {
+        return ((Number) em.createNativeQuery("SELECT COALESCE(SUM(BASE_VALUE), 0) " +
+                        "FROM INFORMATION_SCHEMA.SEQUENCES " +
+                        "WHERE SEQUENCE_SCHEMA = 'PUBLIC'")
+                .getSingleResult()).longValue();
+    }
+
+    private long sequenceCallsSince(long sequences) {
+        return (sequenceValues() - sequences) / SEQUENCE_INCREMENT;
+    }
+
     private boolean resultContainsAllExpectedIds(Collection<BookingDto> result, Collection<Booking> expected) {
         Collection<Long> expectedIds = expected.stream()
                 .map(Booking::getId)
@@ -171,4 +352,48 @@ public class BookingServiceIntegrationTest {
         return result.stream().map(BookingDto::getId).collect(Collectors.toList())
                 .containsAll(expectedIds);
     }
+
+    @Test
+    void exportBookingsOfUserItemsStreamsAllRowsTest() {
+        UserDto ownerDto = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto bookerDto = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemDto itemDto = itemService.addItem(ownerDto.getId(), new ItemDto(
+                null,
+                "item1",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        Item item = em.find(Item.class, itemDto.getId());
+        User booker = em.find(User.class, bookerDto.getId());
+        LocalDateTime start = LocalDateTime.now().minusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 120; i++) {
+            em.persist(new Booking(item, start.plusDays(i), start.plusDays(i).plusHours(1), booker,
+                    BookingStatus.APPROVED));
+        }
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        statistics.clear();
+        List<BookingDto> exported = new ArrayList<>();
+        bookingService.exportBookingsOfUserItems(ownerDto.getId(), exported::add);
+        long statements = statistics.getPrepareStatementCount();
+        long loads = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(exported.size(), equalTo(120));
+        assertThat(exported.get(0).getStart(), equalTo(start.plusDays(119)));
+        assertThat(exported.get(119).getStart(), equalTo(start));
+        assertThat(exported.get(0).getItem().getName(), equalTo("item1"));
+        assertThat(exported.get(0).getBooker().getName(), equalTo("booker"));
+        assertThat(statements, equalTo(2L));
+        assertThat(loads, equalTo(1L));
+    }
 }
@@ -1,27 +1,46 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingDetails;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusPatchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEventStorage;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.booking.utils.BookingState;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
 import ru.practicum.shareit.utils.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.utils.exceptions.UnavailableItemException;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.*;
 
@@ -29,24 +48,28 @@ public class BookingServiceTest {
     @Test
     void createBookingOwnerTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
         Mockito
                 .when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testItem));
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Assertions.assertThrows(ObjectNotFoundException.class, () -> bookingService.createBooking(1L,
                 new BookingPostDto(1L, 1L, LocalDateTime.now(), LocalDateTime.now().plusHours(5))));
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findById(anyLong());
@@ -56,11 +79,15 @@ public class BookingServiceTest {
     @Test
     void createBookingItemNotAvailableTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -72,13 +99,13 @@ public class BookingServiceTest {
                 .when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testItem));
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Assertions.assertThrows(UnavailableItemException.class, () -> bookingService.createBooking(1L,
                 new BookingPostDto(1L, 1L, LocalDateTime.now(), LocalDateTime.now().plusHours(5))));
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findById(anyLong());
@@ -88,11 +115,15 @@ public class BookingServiceTest {
     @Test
     void createBookingTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -104,7 +135,7 @@ public class BookingServiceTest {
                 .when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testItem));
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(bookingStorage.save(any(Booking.class)))
@@ -118,24 +149,33 @@ public class BookingServiceTest {
                 new BookingPostDto(2L, 1L, LocalDateTime.now(), LocalDateTime.now().plusHours(5)));
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
                 .save(any(Booking.class));
-        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
+        Mockito
+                .verify(bookingEventStorage, Mockito.times(1))
+                .save(argThat(event -> event.getBookingId().equals(1L)
+                        && event.getOwnerId().equals(2L)
+                        && event.getStatus() == BookingStatus.WAITING));
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage, bookingEventStorage);
     }
 
     @Test
     void patchBookingStatusWrongUserTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -150,24 +190,28 @@ public class BookingServiceTest {
                 testUser,
                 BookingStatus.WAITING);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findWithDetailById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Assertions.assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.patchBookingStatus(1L, 1L, true));
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findWithDetailById(anyLong());
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
     @Test
     void patchBookingStatusWrongStatusTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -182,24 +226,28 @@ public class BookingServiceTest {
                 testUser,
                 BookingStatus.REJECTED);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findWithDetailById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Assertions.assertThrows(UnsupportedOperationException.class,
                 () -> bookingService.patchBookingStatus(1L, 1L, true));
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findWithDetailById(anyLong());
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
     @Test
     void patchBookingStatusApprovedTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -214,30 +262,159 @@ public class BookingServiceTest {
                 testUser,
                 BookingStatus.WAITING);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findWithDetailById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Mockito
-                .when(bookingStorage.save(any(Booking.class)))
-                .then(org.mockito.AdditionalAnswers.returnsFirstArg());
+                .when(itemStorage.findLockedById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        Mockito
+                .when(bookingStorage.existsOverlap(anyLong(),
+                        any(BookingStatus.class),
+                        any(LocalDateTime.class),
+                        any(LocalDateTime.class),
+                        anyLong()))
+                .thenReturn(false);
+        Mockito
+                .when(bookingStorage.updateStatus(anyLong(), any(BookingStatus.class), any(BookingStatus.class)))
+                .thenReturn(1);
         BookingDto answer = bookingService.patchBookingStatus(1L, 1L, true);
         Assertions.assertEquals(answer.getStatus(), BookingStatus.APPROVED);
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findWithDetailById(anyLong());
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .findLockedById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .save(any(Booking.class));
+                .existsOverlap(anyLong(),
+                        any(BookingStatus.class),
+                        any(LocalDateTime.class),
+                        any(LocalDateTime.class),
+                        anyLong());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .updateStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        Mockito
+                .verify(bookingEventStorage, Mockito.times(1))
+                .save(argThat(event -> event.getBookingId().equals(1L)
+                        && event.getBookerId().equals(1L)
+                        && event.getStatus() == BookingStatus.APPROVED));
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage, bookingEventStorage);
+    }
+
+    @Test
+    void patchBookingStatusOverlapTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
+        User testUser = new User(1L, "testname", "test@mail.com");
+        Item testItem = new Item(1L,
+                "test",
+                "description",
+                true,
+                new User(1L, "test", "t@mail.com"),
+                null);
+        Booking testBooking = new Booking(1L,
+                testItem,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                testUser,
+                BookingStatus.WAITING);
+        Mockito
+                .when(bookingStorage.findWithDetailById(anyLong()))
+                .thenReturn(Optional.of(testBooking));
+        Mockito
+                .when(itemStorage.findLockedById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        Mockito
+                .when(bookingStorage.existsOverlap(anyLong(),
+                        any(BookingStatus.class),
+                        any(LocalDateTime.class),
+                        any(LocalDateTime.class),
+                        anyLong()))
+                .thenReturn(true);
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> bookingService.patchBookingStatus(1L, 1L, true));
+        Assertions.assertEquals(BookingStatus.WAITING, testBooking.getStatus());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .findWithDetailById(anyLong());
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .findLockedById(anyLong());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .existsOverlap(anyLong(),
+                        any(BookingStatus.class),
+                        any(LocalDateTime.class),
+                        any(LocalDateTime.class),
+                        anyLong());
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
+    @Test
+    void patchBookingStatusOverlapConstraintTest() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("overlap",
+                new ConstraintViolationException("overlap", new SQLException(
+                        "ERROR: conflicting key value violates exclusion constraint \"bookings_approved_no_overlap\"",
+                        "23P01"), null));
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> patchBookingStatusFailingWith(violation, meterRegistry));
+        Assertions.assertEquals(1.0, meterRegistry.counter("shareit.bookings.status.changes",
+                "outcome", "overlap").count());
+    }
+
+    @Test
+    void patchBookingStatusPartitionOverlapConstraintTest() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("exclusion",
+                new ConstraintViolationException("exclusion", new SQLException(
+                        "ERROR: conflicting key value violates exclusion constraint",
+                        "23P01"), "bookings_2030_01_no_overlap"));
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> patchBookingStatusFailingWith(violation, meterRegistry));
+        Assertions.assertEquals(1.0, meterRegistry.counter("shareit.bookings.status.changes",
+                "outcome", "overlap").count());
+    }
+
+    @Test
+    void patchBookingStatusOtherConstraintTest() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("foreign key",
+                new ConstraintViolationException("foreign key", new SQLException(
+                        "ERROR: insert or update on table \"bookings\" violates foreign key constraint",
+                        "23503"), "bookings_item_id_fkey"));
+
+        DataIntegrityViolationException thrown = Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> patchBookingStatusFailingWith(violation, meterRegistry));
+        Assertions.assertSame(violation, thrown);
+        Assertions.assertEquals(0.0, meterRegistry.counter("shareit.bookings.status.changes",
+                "outcome", "overlap").count());
+    }
+
     @Test
     void patchBookingStatusRejectedTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
@@ -252,136 +429,500 @@ public class BookingServiceTest {
                 testUser,
                 BookingStatus.WAITING);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findWithDetailById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Mockito
-                .when(bookingStorage.save(any(Booking.class)))
-                .then(org.mockito.AdditionalAnswers.returnsFirstArg());
+                .when(bookingStorage.updateStatus(anyLong(), any(BookingStatus.class), any(BookingStatus.class)))
+                .thenReturn(1);
         BookingDto answer = bookingService.patchBookingStatus(1L, 1L, false);
         Assertions.assertEquals(answer.getStatus(), BookingStatus.REJECTED);
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findWithDetailById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .save(any(Booking.class));
+                .updateStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED);
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
     @Test
-    void getBookingWrongUserTest() {
+    void patchBookingStatusConcurrentChangeTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
-        User testOwner = new User(1L, "test name", "test@mail.com");
-        User testBooker = new User(2L, "test booker", "booker@mail.com");
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                meterRegistry);
+        User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L,
                 "test",
                 "description",
                 true,
-                testOwner,
+                new User(1L, "test", "t@mail.com"),
                 null);
         Booking testBooking = new Booking(1L,
                 testItem,
                 LocalDateTime.now(),
                 LocalDateTime.now().plusHours(5),
-                testBooker,
+                testUser,
                 BookingStatus.WAITING);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findWithDetailById(anyLong()))
+                .thenReturn(Optional.of(testBooking));
+        Mockito
+                .when(bookingStorage.updateStatus(anyLong(), any(BookingStatus.class), any(BookingStatus.class)))
+                .thenReturn(0);
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> bookingService.patchBookingStatus(1L, 1L, false));
+        Assertions.assertEquals(1.0, meterRegistry.get("shareit.bookings.status.changes")
+                .tag("outcome", "conflict")
+                .counter()
+                .count());
+        Assertions.assertEquals(0.0, meterRegistry.get("shareit.bookings.status.changes")
+                .tag("outcome", "updated")
+                .counter()
+                .count());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .findWithDetailById(anyLong());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .updateStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED);
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
+    }
+
+    @Test
+    void createBookingsTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
+        User testOwner = new User(1L, "owner", "owner@mail.com");
+        User testBooker = new User(2L, "booker", "booker@mail.com");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito
+                .when(userStorage.findCachedById(anyLong()))
+                .thenReturn(Optional.of(testBooker));
+        Mockito
+                .when(itemStorage.findAllById(anyIterable()))
+                .thenReturn(List.of(new Item(1L, "test", "description", true, testOwner, null),
+                        new Item(2L, "test2", "description", true, testOwner, null)));
+        Mockito
+                .when(bookingStorage.saveAll(anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Booking> saved = invocation.getArgument(0);
+                    for (int i = 0; i < saved.size(); i++) {
+                        saved.get(i).setId(i + 1L);
+                    }
+                    return saved;
+                });
+
+        Collection<BookingDto> bookings = bookingService.createBookings(2L, List.of(
+                new BookingPostDto(null, 1L, start, start.plusHours(1)),
+                new BookingPostDto(null, 2L, start, start.plusHours(1))));
+
+        Assertions.assertEquals(List.of(1L, 2L), bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toList()));
+        Assertions.assertTrue(bookings.stream().allMatch(booking -> booking.getStatus() == BookingStatus.WAITING));
+        Mockito
+                .verify(userStorage, Mockito.times(1))
+                .findCachedById(2L);
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .findAllById(Set.of(1L, 2L));
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .saveAll(anyIterable());
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
+    }
+
+    @Test
+    void createBookingsUnavailableItemTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito
+                .when(userStorage.findCachedById(anyLong()))
+                .thenReturn(Optional.of(new User(2L, "booker", "booker@mail.com")));
+        Mockito
+                .when(itemStorage.findAllById(anyIterable()))
+                .thenReturn(List.of(new Item(1L, "test", "description", false,
+                        new User(1L, "owner", "owner@mail.com"), null)));
+        Assertions.assertThrows(UnavailableItemException.class,
+                () -> bookingService.createBookings(2L, List.of(
+                        new BookingPostDto(null, 1L, start, start.plusHours(1)))));
+        Mockito
+                .verify(bookingStorage, Mockito.never())
+                .saveAll(anyIterable());
+    }
+
+    @Test
+    void patchBookingStatusesTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                meterRegistry);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito
+                .when(bookingStorage.findDetailsByIdIn(anyCollection()))
+                .thenReturn(List.of(
+                        details(1L, start, start.plusHours(2), BookingStatus.WAITING, 1L),
+                        details(2L, start, start.plusHours(2), BookingStatus.WAITING, 1L),
+                        details(3L, start.plusHours(1), start.plusHours(3), BookingStatus.WAITING, 1L),
+                        details(4L, start, start.plusHours(2), BookingStatus.APPROVED, 1L),
+                        details(5L, start, start.plusHours(2), BookingStatus.WAITING, 2L)));
+        Mockito
+                .when(bookingStorage.findApprovedOverlapping(anyCollection()))
+                .thenReturn(List.of());
+        Mockito
+                .when(bookingStorage.findLockedByIdInOrderByIdAsc(anyCollection()))
+                .thenReturn(List.of(locked(1L, BookingStatus.WAITING), locked(2L, BookingStatus.WAITING)));
+        Mockito
+                .when(bookingStorage.updateStatusIn(anyCollection(),
+                        any(BookingStatus.class),
+                        any(BookingStatus.class)))
+                .thenReturn(1);
+        List<BookingStatusResultDto> results = List.copyOf(bookingService.patchBookingStatuses(1L, List.of(
+                new BookingStatusPatchDto(1L, true),
+                new BookingStatusPatchDto(2L, false),
+                new BookingStatusPatchDto(3L, true),
+                new BookingStatusPatchDto(4L, true),
+                new BookingStatusPatchDto(5L, true),
+                new BookingStatusPatchDto(6L, true),
+                new BookingStatusPatchDto(1L, false),
+                new BookingStatusPatchDto(null, true))));
+
+        Assertions.assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.UPDATED, results.get(0).getOutcome());
+        Assertions.assertNull(results.get(0).getError());
+        Assertions.assertEquals(BookingStatus.REJECTED, results.get(1).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.UPDATED, results.get(1).getOutcome());
+        Assertions.assertNull(results.get(1).getError());
+        Assertions.assertEquals(BookingStatus.WAITING, results.get(2).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.CONFLICT, results.get(2).getOutcome());
+        Assertions.assertNotNull(results.get(2).getError());
+        Assertions.assertEquals(BookingStatus.APPROVED, results.get(3).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.CONFLICT, results.get(3).getOutcome());
+        Assertions.assertNotNull(results.get(3).getError());
+        Assertions.assertNull(results.get(4).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.FAILED, results.get(4).getOutcome());
+        Assertions.assertNotNull(results.get(4).getError());
+        Assertions.assertNull(results.get(5).getStatus());
+        Assertions.assertNotNull(results.get(5).getError());
+        Assertions.assertNotNull(results.get(6).getError());
+        Assertions.assertNotNull(results.get(7).getError());
+        Assertions.assertEquals(2.0, meterRegistry.get("shareit.bookings.status.changes")
+                .tag("outcome", "updated")
+                .counter()
+                .count());
+        Assertions.assertEquals(1.0, meterRegistry.get("shareit.bookings.status.changes")
+                .tag("outcome", "overlap")
+                .counter()
+                .count());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .findDetailsByIdIn(Set.of(1L, 2L, 3L, 4L, 5L, 6L));
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .findLockedByIdInOrderByIdAsc(Set.of(1L));
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .findApprovedOverlapping(anyCollection());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .findLockedByIdInOrderByIdAsc(Set.of(1L, 2L));
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .updateStatusIn(List.of(1L), BookingStatus.WAITING, BookingStatus.APPROVED);
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .updateStatusIn(List.of(2L), BookingStatus.WAITING, BookingStatus.REJECTED);
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
+    }
+
+    @Test
+    void patchBookingStatusesConcurrentChangeTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                meterRegistry);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito
+                .when(bookingStorage.findDetailsByIdIn(anyCollection()))
+                .thenReturn(List.of(details(1L, start, start.plusHours(2), BookingStatus.WAITING, 1L),
+                        details(2L, start.plusHours(2), start.plusHours(4), BookingStatus.WAITING, 1L)));
+        Mockito
+                .when(bookingStorage.findLockedByIdInOrderByIdAsc(anyCollection()))
+                .thenReturn(List.of(locked(1L, BookingStatus.WAITING), locked(2L, BookingStatus.APPROVED)));
+        Mockito
+                .when(bookingStorage.updateStatusIn(anyCollection(),
+                        any(BookingStatus.class),
+                        any(BookingStatus.class)))
+                .thenReturn(1);
+
+        List<BookingStatusResultDto> results = List.copyOf(bookingService.patchBookingStatuses(1L, List.of(
+                new BookingStatusPatchDto(1L, false),
+                new BookingStatusPatchDto(2L, false))));
+
+        Assertions.assertEquals(BookingStatus.REJECTED, results.get(0).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.UPDATED, results.get(0).getOutcome());
+        Assertions.assertEquals(BookingStatus.APPROVED, results.get(1).getStatus());
+        Assertions.assertEquals(BookingStatusOutcome.CONFLICT, results.get(1).getOutcome());
+        Assertions.assertNotNull(results.get(1).getError());
+        Assertions.assertEquals(1.0, meterRegistry.get("shareit.bookings.status.changes")
+                .tag("outcome", "conflict")
+                .counter()
+                .count());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .updateStatusIn(List.of(1L), BookingStatus.WAITING, BookingStatus.REJECTED);
+        Mockito
+                .verify(bookingEventStorage, Mockito.times(1))
+                .saveAll(argThat((List<BookingEvent> events) -> events.size() == 1));
+    }
+
+    @Test
+    void getBookingWrongUserTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
+        User testOwner = new User(1L, "test name", "test@mail.com");
+        User testBooker = new User(2L, "test booker", "booker@mail.com");
+        BookingDetails testBooking = new BookingDetails(1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                BookingStatus.WAITING,
+                1L,
+                "test",
+                "description",
+                true,
+                null,
+                testOwner.getId(),
+                testBooker.getId(),
+                testBooker.getName(),
+                testBooker.getEmail(),
+                0L,
+                0L,
+                0L);
+        Mockito
+                .when(bookingStorage.findDetailsById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Assertions.assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.getBooking(3L, 1L));
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findDetailsById(anyLong());
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
     @Test
     void getBookingOwnerOrBookerTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testOwner = new User(1L, "test name", "test@mail.com");
         User testBooker = new User(2L, "test booker", "booker@mail.com");
-        Item testItem = new Item(1L,
+        BookingDetails testBooking = new BookingDetails(1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                BookingStatus.WAITING,
+                1L,
                 "test",
                 "description",
                 true,
-                testOwner,
-                null);
-        Booking testBooking = new Booking(1L,
-                testItem,
-                LocalDateTime.now(),
-                LocalDateTime.now().plusHours(5),
-                testBooker,
-                BookingStatus.WAITING);
+                null,
+                testOwner.getId(),
+                testBooker.getId(),
+                testBooker.getName(),
+                testBooker.getEmail(),
+                0L,
+                0L,
+                0L);
         Mockito
-                .when(bookingStorage.findById(anyLong()))
+                .when(bookingStorage.findDetailsById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         Assertions.assertDoesNotThrow(() -> bookingService.getBooking(testOwner.getId(), 1L));
         Assertions.assertDoesNotThrow(() -> bookingService.getBooking(testBooker.getId(), 1L));
+        Assertions.assertTrue(bookingService.getTaggedBooking(testBooker.getId(), 1L).isPersonal());
         Mockito
-                .verify(bookingStorage, Mockito.times(2))
-                .findById(anyLong());
+                .verify(bookingStorage, Mockito.times(3))
+                .findDetailsById(anyLong());
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
+    }
+
+    @Test
+    void exportBookingsOfUserItemsClosesStreamTest() {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
+                userStorage,
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
+        User owner = new User(1L, "owner", "owner@mail.com");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito
+                .when(userStorage.findCachedById(anyLong()))
+                .thenReturn(Optional.of(owner));
+        Mockito
+                .when(bookingStorage.streamAllByOwner(any(User.class)))
+                .thenReturn(Stream.of(details(2L, start.plusHours(2), start.plusHours(4), BookingStatus.WAITING, 1L),
+                                details(1L, start, start.plusHours(2), BookingStatus.APPROVED, 1L))
+                        .onClose(() -> closed.set(true)));
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.exportBookingsOfUserItems(owner.getId(), exported::add);
+
+        Assertions.assertEquals(List.of(2L, 1L),
+                exported.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        Assertions.assertTrue(closed.get());
+        Mockito
+                .verify(userStorage, Mockito.times(1))
+                .findCachedById(anyLong());
+        Mockito
+                .verify(bookingStorage, Mockito.times(1))
+                .streamAllByOwner(any(User.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
 
+    private Booking locked(Long id, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private BookingDetails details(Long id,
+                                   LocalDateTime start,
+                                   LocalDateTime end,
+                                   BookingStatus status,
+                                   Long ownerId) {
+        return new BookingDetails(id,
+                start,
+                end,
+                status,
+                1L,
+                "test",
+                "description",
+                true,
+                null,
+                ownerId,
+                3L,
+                "booker",
+                "booker@mail.com",
+                0L,
+                0L,
+                0L);
+    }
+
     @Test
     void getBookingsOfUserTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testOwner = new User(1L, "test name", "test@mail.com");
         User testBooker = new User(2L, "test booker", "booker@mail.com");
-        Item testItem = new Item(1L,
+        BookingDetails testBooking = new BookingDetails(1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                BookingStatus.WAITING,
+                1L,
                 "test",
                 "description",
                 true,
-                testOwner,
-                null);
-        Booking testBooking = new Booking(1L,
-                testItem,
-                LocalDateTime.now(),
-                LocalDateTime.now().plusHours(5),
-                testBooker,
-                BookingStatus.WAITING);
+                null,
+                testOwner.getId(),
+                testBooker.getId(),
+                testBooker.getName(),
+                testBooker.getEmail(),
+                0L,
+                0L,
+                0L);
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testOwner));
         Mockito
                 .when(bookingStorage.findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findBookingByBookerAndDate(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByBookerAndEndBeforeOrderByStartDesc(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByBookerAndStartAfterOrderByStartDesc(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByBookerAndStatusOrderByStartDesc(any(User.class),
                         any(BookingStatus.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         bookingService.getBookingsOfUser(2L, BookingState.ALL, 0, 20);
         bookingService.getBookingsOfUser(2L, BookingState.CURRENT, 0, 20);
         bookingService.getBookingsOfUser(2L, BookingState.PAST, 0, 20);
@@ -390,7 +931,7 @@ public class BookingServiceTest {
         bookingService.getBookingsOfUser(2L, BookingState.REJECTED, 0, 20);
         Mockito
                 .verify(userStorage, Mockito.times(6))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
                 .findAllByBookerOrderByStartDesc(any(User.class), any(Pageable.class));
@@ -418,51 +959,59 @@ public class BookingServiceTest {
     @Test
     void getBookingsOfUserItemsTest() {
         BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        BookingEventStorage bookingEventStorage = Mockito.mock(BookingEventStorage.class);
         UserStorage userStorage = Mockito.mock(UserStorage.class);
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
         BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                bookingEventStorage,
                 userStorage,
-                itemStorage);
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                new SimpleMeterRegistry());
         User testOwner = new User(1L, "test name", "test@mail.com");
         User testBooker = new User(2L, "test booker", "booker@mail.com");
-        Item testItem = new Item(1L,
+        BookingDetails testBooking = new BookingDetails(1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                BookingStatus.WAITING,
+                1L,
                 "test",
                 "description",
                 true,
-                testOwner,
-                null);
-        Booking testBooking = new Booking(1L,
-                testItem,
-                LocalDateTime.now(),
-                LocalDateTime.now().plusHours(5),
-                testBooker,
-                BookingStatus.WAITING);
+                null,
+                testOwner.getId(),
+                testBooker.getId(),
+                testBooker.getName(),
+                testBooker.getEmail(),
+                0L,
+                0L,
+                0L);
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testOwner));
         Mockito
                 .when(bookingStorage.findAllByItemOwnerIsOrderByStartDesc(any(User.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findBookingByOwnerAndDate(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByItemOwnerIsAndStartAfterOrderByStartDesc(any(User.class),
                         any(LocalDateTime.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         Mockito
                 .when(bookingStorage.findAllByItemOwnerIsAndStatusOrderByStartDesc(any(User.class),
                         any(BookingStatus.class),
                         any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testBooking)));
+                .thenReturn(new SliceImpl<>(List.of(testBooking)));
         bookingService.getBookingsOfUserItems(1L, BookingState.ALL, 0, 20);
         bookingService.getBookingsOfUserItems(1L, BookingState.CURRENT, 0, 20);
         bookingService.getBookingsOfUserItems(1L, BookingState.PAST, 0, 20);
@@ -471,7 +1020,7 @@ public class BookingServiceTest {
         bookingService.getBookingsOfUserItems(1L, BookingState.REJECTED, 0, 20);
         Mockito
                 .verify(userStorage, Mockito.times(6))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
                 .findAllByItemOwnerIsOrderByStartDesc(any(User.class), any(Pageable.class));
@@ -495,4 +1044,34 @@ public class BookingServiceTest {
                         any(Pageable.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, bookingStorage);
     }
+
+    private void patchBookingStatusFailingWith(DataIntegrityViolationException violation,
+                                               MeterRegistry meterRegistry) {
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        BookingService bookingService = new BookingServiceImpl(bookingStorage,
+                Mockito.mock(BookingEventStorage.class),
+                Mockito.mock(UserStorage.class),
+                itemStorage,
+                new BookingAvailabilityEngine(bookingStorage, itemStorage),
+                meterRegistry);
+        User owner = new User(1L, "test", "t@mail.com");
+        Item testItem = new Item(1L, "test", "description", true, owner, null);
+        Booking testBooking = new Booking(1L,
+                testItem,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(5),
+                new User(2L, "testname", "test@mail.com"),
+                BookingStatus.WAITING);
+        Mockito
+                .when(bookingStorage.findWithDetailById(anyLong()))
+                .thenReturn(Optional.of(testBooking));
+        Mockito
+                .when(itemStorage.findLockedById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        Mockito
+                .when(bookingStorage.updateStatus(anyLong(), any(BookingStatus.class), any(BookingStatus.class)))
+                .thenThrow(violation);
+        bookingService.patchBookingStatus(1L, 1L, true);
+    }
 }
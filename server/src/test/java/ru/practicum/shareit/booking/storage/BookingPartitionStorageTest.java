@@ -0,0 +1,192 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.exceptions.BookingOverlapException;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingPartitionStorageTest {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingStorage bookingStorage;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("shareit.bookings.partitioned", () -> "true");
+    }
+
+    @Test
+    void crossMonthOverlapIsRejectedByItemLockTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "cross-owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "cross-booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "item", "description", true,
+                null, null, null, null));
+        LocalDateTime boundary = LocalDate.now().plusMonths(2).withDayOfMonth(1).atStartOfDay();
+        BookingDto first = bookingService.createBooking(booker.getId(), new BookingPostDto(null,
+                item.getId(),
+                boundary.minusDays(2),
+                boundary.plusDays(1)));
+        BookingDto second = bookingService.createBooking(booker.getId(), new BookingPostDto(null,
+                item.getId(),
+                boundary.plusHours(1),
+                boundary.plusDays(2)));
+        Assertions.assertNotEquals(partitionOf(first.getId()), partitionOf(second.getId()));
+
+        jdbc.update("UPDATE bookings SET status = 'APPROVED' WHERE booking_id = ?", first.getId());
+
+        Assertions.assertThrows(BookingOverlapException.class,
+                () -> bookingService.patchBookingStatus(owner.getId(), second.getId(), true));
+        Assertions.assertEquals(BookingStatus.WAITING.name(), jdbc.queryForObject(
+                "SELECT status FROM bookings WHERE booking_id = ?", String.class, second.getId()));
+    }
+
+    @Test
+    void crossMonthOverlapIsRejectedByDatabaseTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "trigger-owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "trigger-booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "item", "description", true,
+                null, null, null, null));
+        LocalDateTime boundary = LocalDate.now().plusMonths(2).withDayOfMonth(1).atStartOfDay();
+        BookingDto first = bookingService.createBooking(booker.getId(), new BookingPostDto(null,
+                item.getId(),
+                boundary.minusDays(2),
+                boundary.plusDays(1)));
+        BookingDto second = bookingService.createBooking(booker.getId(), new BookingPostDto(null,
+                item.getId(),
+                boundary.plusHours(1),
+                boundary.plusDays(2)));
+        jdbc.update("UPDATE bookings SET status = 'APPROVED' WHERE booking_id = ?", first.getId());
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> jdbc.update(
+                "UPDATE bookings SET status = 'APPROVED' WHERE booking_id = ?", second.getId()));
+        Assertions.assertEquals(BookingStatus.WAITING.name(), jdbc.queryForObject(
+                "SELECT status FROM bookings WHERE booking_id = ?", String.class, second.getId()));
+    }
+
+    @Test
+    void itemOwnerChangeUpdatesArchivedBookingsTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "sync-owner@mail.com"));
+        UserDto newOwner = userService.createUser(new UserDto(null, "new owner", "sync-new-owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "sync-booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "item", "description", true,
+                null, null, null, null));
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        long bookingId = 3_000_000L;
+        jdbc.update("INSERT INTO bookings_archive (booking_id, item_id, user_id, status, start_time, end_time, " +
+                        "version, owner_id) VALUES (?, ?, ?, 'APPROVED', ?, ?, 0, ?)",
+                bookingId,
+                item.getId(),
+                booker.getId(),
+                Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusDays(1)),
+                owner.getId());
+
+        jdbc.update("UPDATE items SET user_id = ? WHERE item_id = ?", newOwner.getId(), item.getId());
+
+        Assertions.assertEquals(newOwner.getId(), jdbc.queryForObject(
+                "SELECT owner_id FROM bookings_archive WHERE booking_id = ?", Long.class, bookingId));
+    }
+
+    @Test
+    void archiveEndedBeforeDetachesOldPartitionsTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "archive-owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "archive-booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "item", "description", true,
+                null, null, null, null));
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        long bookingId = 1_000_000L;
+        jdbc.update("INSERT INTO bookings (booking_id, item_id, user_id, status, start_time, end_time, owner_id) " +
+                        "VALUES (?, ?, ?, 'APPROVED', ?, ?, ?)",
+                bookingId,
+                item.getId(),
+                booker.getId(),
+                Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusDays(1)),
+                owner.getId());
+        String partition = "bookings_" + YearMonth.from(start).format(DateTimeFormatter.ofPattern("yyyy_MM"));
+
+        transactionTemplate.executeWithoutResult(status -> bookingStorage.preparePartitions(start.toLocalDate(), 0));
+        Assertions.assertEquals(partition, partitionOf(bookingId));
+
+        Integer archived = transactionTemplate.execute(
+                status -> bookingStorage.archiveEndedBefore(LocalDate.now().minusYears(1)));
+
+        Assertions.assertEquals(1, archived);
+        Assertions.assertNull(jdbc.queryForObject("SELECT CAST(to_regclass(?) AS text)", String.class, partition));
+        Assertions.assertEquals(0, jdbc.queryForObject(
+                "SELECT count(*) FROM bookings WHERE booking_id = ?", Integer.class, bookingId));
+        Assertions.assertEquals(owner.getId(), jdbc.queryForObject(
+                "SELECT owner_id FROM bookings_archive WHERE booking_id = ?", Long.class, bookingId));
+        Assertions.assertTrue(bookingStorage.existsPastBooking(booker.getId(), item.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    void archiveEndedBeforeMovesEndedDefaultPartitionRowsTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "default-owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "default-booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(null, "item", "description", true,
+                null, null, null, null));
+        LocalDateTime start = LocalDateTime.now().minusYears(3);
+        long bookingId = 2_000_000L;
+        jdbc.update("INSERT INTO bookings_default (booking_id, item_id, user_id, status, start_time, end_time, " +
+                        "owner_id) VALUES (?, ?, ?, 'APPROVED', ?, ?, ?)",
+                bookingId,
+                item.getId(),
+                booker.getId(),
+                Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusDays(1)),
+                owner.getId());
+
+        Integer archived = transactionTemplate.execute(
+                status -> bookingStorage.archiveEndedBefore(LocalDate.now().minusYears(1)));
+
+        Assertions.assertEquals(1, archived);
+        Assertions.assertEquals(0, jdbc.queryForObject(
+                "SELECT count(*) FROM bookings WHERE booking_id = ?", Integer.class, bookingId));
+        Assertions.assertEquals(owner.getId(), jdbc.queryForObject(
+                "SELECT owner_id FROM bookings_archive WHERE booking_id = ?", Long.class, bookingId));
+    }
+
+    private String partitionOf(long bookingId) {
+        return jdbc.queryForObject("SELECT CAST(tableoid::regclass AS text) FROM bookings WHERE booking_id = ?",
+                String.class, bookingId);
+    }
+}
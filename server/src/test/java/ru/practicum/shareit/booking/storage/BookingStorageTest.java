@@ -1,23 +1,32 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingDetails;
+import ru.practicum.shareit.booking.dto.BookingItemView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.model.PageCursor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 public class BookingStorageTest {
@@ -67,136 +76,257 @@ public class BookingStorageTest {
         }
     }
 
+    @Test
+    void findWithDetailByIdTest() {
+        Long bookingId = em.getEntityManager()
+                .createQuery("select b.id from Booking b", Long.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        em.flush();
+        em.clear();
+        Booking booking = bookingStorage.findWithDetailById(bookingId).orElseThrow();
+        Assertions.assertTrue(Hibernate.isInitialized(booking.getItem()));
+        Assertions.assertTrue(Hibernate.isInitialized(booking.getBooker()));
+        Assertions.assertFalse(Hibernate.isInitialized(booking.getItem().getOwner()));
+        Assertions.assertEquals(owner.getId(), booking.getItem().getOwner().getId());
+        Assertions.assertFalse(Hibernate.isInitialized(booking.getItem().getOwner()));
+    }
+
+    @Test
+    void ownerFilledOnPersistTest() {
+        Booking booking = new Booking(testItem,
+                LocalDateTime.now().plusYears(1),
+                LocalDateTime.now().plusYears(1).plusDays(1),
+                booker,
+                BookingStatus.WAITING);
+        em.persist(booking);
+        em.flush();
+        em.clear();
+        Long ownerId = (Long) em.getEntityManager()
+                .createQuery("select b.owner.id from Booking b where b.id = :id")
+                .setParameter("id", booking.getId())
+                .getSingleResult();
+        Assertions.assertEquals(owner.getId(), ownerId);
+    }
+
+    @Test
+    void updateStatusOnlyFromExpectedTest() {
+        Booking booking = new Booking(testItem,
+                LocalDateTime.now().plusYears(1),
+                LocalDateTime.now().plusYears(1).plusDays(1),
+                booker,
+                BookingStatus.WAITING);
+        em.persist(booking);
+        em.flush();
+        Assertions.assertEquals(1, bookingStorage.updateStatus(booking.getId(),
+                BookingStatus.WAITING,
+                BookingStatus.APPROVED));
+        Assertions.assertEquals(0, bookingStorage.updateStatus(booking.getId(),
+                BookingStatus.WAITING,
+                BookingStatus.REJECTED));
+        Booking updated = em.find(Booking.class, booking.getId());
+        Assertions.assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        Assertions.assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void updateStatusInOnlyFromExpectedTest() {
+        LocalDateTime start = LocalDateTime.now().plusYears(1);
+        Booking waiting = new Booking(testItem, start, start.plusDays(1), booker, BookingStatus.WAITING);
+        Booking rejected = new Booking(testItem, start, start.plusDays(1), booker, BookingStatus.REJECTED);
+        em.persist(waiting);
+        em.persist(rejected);
+        em.flush();
+        Assertions.assertEquals(1, bookingStorage.updateStatusIn(List.of(waiting.getId(), rejected.getId()),
+                BookingStatus.WAITING,
+                BookingStatus.APPROVED));
+        Assertions.assertEquals(BookingStatus.APPROVED, em.find(Booking.class, waiting.getId()).getStatus());
+        Assertions.assertEquals(1L, em.find(Booking.class, waiting.getId()).getVersion());
+        Assertions.assertEquals(BookingStatus.REJECTED, em.find(Booking.class, rejected.getId()).getStatus());
+    }
+
+    @Test
+    void findApprovedOverlappingTest() {
+        LocalDateTime start = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking inside = new Booking(testItem, start, start.plusDays(2), booker, BookingStatus.APPROVED);
+        Booking between = new Booking(testItem, start.plusDays(3), start.plusDays(4), booker, BookingStatus.APPROVED);
+        Booking waiting = new Booking(testItem, start, start.plusDays(2), booker, BookingStatus.WAITING);
+        Booking first = new Booking(testItem, start.plusDays(1), start.plusDays(1).plusHours(1), booker,
+                BookingStatus.WAITING);
+        Booking last = new Booking(testItem, start.plusDays(5), start.plusDays(6), booker, BookingStatus.WAITING);
+        em.persist(inside);
+        em.persist(between);
+        em.persist(waiting);
+        em.persist(first);
+        em.persist(last);
+        em.flush();
+        List<Booking> bookings = bookingStorage.findApprovedOverlapping(
+                bookingStorage.findDetailsByIdIn(List.of(first.getId(), last.getId())));
+        Assertions.assertEquals(List.of(inside.getId()), bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList()));
+        Assertions.assertTrue(bookingStorage.findApprovedOverlapping(List.of()).isEmpty());
+    }
+
     @Test
     void findAllByBookerTest() {
-        Page<Booking> bookings = bookingStorage.findAllByBookerOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByBookerOrderByStartDesc(
                 booker, PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getBooker().getId().equals(booker.getId())));
+                (BookingDetails booking) -> booking.getBookerId().equals(booker.getId())));
     }
 
     @Test
     void findAllByBookerAndStatusTest() {
-        Page<Booking> bookings = bookingStorage.findAllByBookerAndStatusOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByBookerAndStatusOrderByStartDesc(
                 booker, BookingStatus.WAITING, PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStatus().equals(BookingStatus.WAITING)
-                        && booking.getBooker().getId().equals(booker.getId())));
+                (BookingDetails booking) -> booking.getStatus().equals(BookingStatus.WAITING)
+                        && booking.getBookerId().equals(booker.getId())));
     }
 
     @Test
     void findAllByBookerAndEndBeforeTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findAllByBookerAndEndBeforeOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByBookerAndEndBeforeOrderByStartDesc(
                 booker,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getEnd().isBefore(dateTime)
-                        && booking.getBooker().getId().equals(booker.getId())));
+                (BookingDetails booking) -> booking.getEnd().isBefore(dateTime)
+                        && booking.getBookerId().equals(booker.getId())));
     }
 
     @Test
     void findAllByBookerAndStartAfterTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findAllByBookerAndStartAfterOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByBookerAndStartAfterOrderByStartDesc(
                 booker,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStart().isAfter(dateTime)
-                        && booking.getBooker().getId().equals(booker.getId())));
+                (BookingDetails booking) -> booking.getStart().isAfter(dateTime)
+                        && booking.getBookerId().equals(booker.getId())));
     }
 
     @Test
     void findByBookerAndDateTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findBookingByBookerAndDate(
+        Slice<BookingDetails> bookings = bookingStorage.findBookingByBookerAndDate(
                 booker,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStart().isBefore(dateTime)
+                (BookingDetails booking) -> booking.getStart().isBefore(dateTime)
                         && booking.getEnd().isAfter(dateTime)
-                        && booking.getBooker().getId().equals(booker.getId())));
+                        && booking.getBookerId().equals(booker.getId())));
     }
 
     @Test
     void findAllByOwnerTest() {
-        Page<Booking> bookings = bookingStorage.findAllByItemOwnerIsOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByItemOwnerIsOrderByStartDesc(
                 owner, PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getItem().getOwner().getId().equals(owner.getId())));
+                (BookingDetails booking) -> booking.getItemOwnerId().equals(owner.getId())));
     }
 
     @Test
     void findAllByOwnerAndStatusTest() {
-        Page<Booking> bookings = bookingStorage.findAllByItemOwnerIsAndStatusOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByItemOwnerIsAndStatusOrderByStartDesc(
                 owner, BookingStatus.WAITING, PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStatus().equals(BookingStatus.WAITING)
-                        && booking.getItem().getOwner().getId().equals(owner.getId())));
+                (BookingDetails booking) -> booking.getStatus().equals(BookingStatus.WAITING)
+                        && booking.getItemOwnerId().equals(owner.getId())));
     }
 
     @Test
     void findAllByOwnerAndEndBeforeTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByItemOwnerIsAndEndBeforeOrderByStartDesc(
                 owner,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getEnd().isBefore(dateTime)
-                        && booking.getItem().getOwner().getId().equals(owner.getId())));
+                (BookingDetails booking) -> booking.getEnd().isBefore(dateTime)
+                        && booking.getItemOwnerId().equals(owner.getId())));
     }
 
     @Test
     void findAllByOwnerAndStartAfterTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findAllByItemOwnerIsAndStartAfterOrderByStartDesc(
+        Slice<BookingDetails> bookings = bookingStorage.findAllByItemOwnerIsAndStartAfterOrderByStartDesc(
                 owner,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStart().isAfter(dateTime)
-                        && booking.getItem().getOwner().getId().equals(owner.getId())));
+                (BookingDetails booking) -> booking.getStart().isAfter(dateTime)
+                        && booking.getItemOwnerId().equals(owner.getId())));
     }
 
     @Test
     void findByOwnerAndDateTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Page<Booking> bookings = bookingStorage.findBookingByOwnerAndDate(
+        Slice<BookingDetails> bookings = bookingStorage.findBookingByOwnerAndDate(
                 owner,
                 dateTime,
                 PageRequest.of(0, 20));
-        Assertions.assertNotEquals(0, bookings.getTotalElements());
+        Assertions.assertNotEquals(0, bookings.getNumberOfElements());
         Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getStart().isBefore(dateTime)
+                (BookingDetails booking) -> booking.getStart().isBefore(dateTime)
                         && booking.getEnd().isAfter(dateTime)
-                        && booking.getItem().getOwner().getId().equals(owner.getId())));
+                        && booking.getItemOwnerId().equals(owner.getId())));
     }
 
     @Test
-    void findByBookerAndItemAndEndBeforeTest() {
+    void existsPastBookingTest() {
         LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
-        Collection<Booking> bookings = bookingStorage.findAllByBookerAndItemAndEndBeforeOrderByStartDesc(
-                booker,
-                testItem,
-                dateTime);
-        Assertions.assertNotEquals(0, bookings.size());
-        Assertions.assertTrue(bookings.stream().allMatch(
-                (Booking booking) -> booking.getEnd().isBefore(dateTime)
+        boolean ended = bookingStorage.findAll().stream()
+                .anyMatch((Booking booking) -> booking.getEnd().isBefore(dateTime)
                         && booking.getItem().getId().equals(testItem.getId())
-                        && booking.getBooker().getId().equals(booker.getId())));
+                        && booking.getBooker().getId().equals(booker.getId()));
+        Assertions.assertTrue(ended);
+        Assertions.assertTrue(bookingStorage.existsPastBooking(booker.getId(), testItem.getId(), dateTime));
+        Assertions.assertFalse(bookingStorage.existsPastBooking(owner.getId(), testItem.getId(), dateTime));
+    }
+
+    @Test
+    void archiveEndedBeforeKeepsCommentEligibilityTest() {
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        Booking ended = new Booking(testItem, start, start.plusDays(1), booker, BookingStatus.APPROVED);
+        em.persist(ended);
+        em.flush();
+        Assertions.assertTrue(bookingStorage.existsPastBooking(booker.getId(), testItem.getId(), LocalDateTime.now()));
+
+        int archived = bookingStorage.archiveEndedBefore(LocalDate.now().minusYears(1));
+        em.clear();
+
+        Assertions.assertEquals(1, archived);
+        Assertions.assertNull(em.find(Booking.class, ended.getId()));
+        Assertions.assertEquals(owner.getId(), ((Number) em.getEntityManager()
+                .createNativeQuery("SELECT owner_id FROM bookings_archive WHERE booking_id = :id")
+                .setParameter("id", ended.getId())
+                .getSingleResult()).longValue());
+        Assertions.assertEquals(100, bookingStorage.count());
+        Assertions.assertTrue(bookingStorage.existsPastBooking(booker.getId(), testItem.getId(), LocalDateTime.now()));
+        Assertions.assertFalse(bookingStorage.existsPastBooking(owner.getId(), testItem.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    void tryLockArchiveTest() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        Assertions.assertTrue(bookingStorage.tryLockArchive(now, now.plusHours(1)));
+        Assertions.assertFalse(bookingStorage.tryLockArchive(now.plusMinutes(1), now.plusHours(2)));
+        Assertions.assertTrue(bookingStorage.tryLockArchive(now.plusHours(1), now.plusHours(2)));
     }
 
     @Test
@@ -228,4 +358,69 @@ public class BookingStorageTest {
                 .orElse(new Booking());
         Assertions.assertEquals(booking.getId(), nextBooking.getId());
     }
+
+    @Test
+    void findLastAndNextBookingsTest() {
+        LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
+        Booking lastBooking = bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(testItem, dateTime)
+                .orElseThrow();
+        Booking nextBooking = bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(testItem, dateTime)
+                .orElseThrow();
+        Collection<BookingItemView> bookings = bookingStorage.findLastAndNextBookings(
+                List.of(testItem.getId()),
+                dateTime);
+        Assertions.assertEquals(2, bookings.size());
+        Assertions.assertTrue(bookings.stream().allMatch(
+                (BookingItemView booking) -> booking.getItemId().equals(testItem.getId())));
+        Assertions.assertTrue(bookings.stream().anyMatch(
+                (BookingItemView booking) -> booking.getId().equals(lastBooking.getId())
+                        && booking.getEndTime().isBefore(dateTime)));
+        Assertions.assertTrue(bookings.stream().anyMatch(
+                (BookingItemView booking) -> booking.getId().equals(nextBooking.getId())
+                        && booking.getBookerId().equals(booker.getId())
+                        && booking.getStatus().equals(nextBooking.getStatus())));
+    }
+
+    @Test
+    void findAllByBookerAfterTest() {
+        List<Booking> expected = bookingStorage.findAll().stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .collect(Collectors.toList());
+        List<BookingDetails> actual = new ArrayList<>();
+        PageCursor cursor = PageCursor.first();
+        List<BookingDetails> page;
+        do {
+            page = bookingStorage.findAllByBookerAfter(booker, cursor.getTime(), cursor.getId(), PageRequest.of(0, 7));
+            actual.addAll(page);
+            if (!page.isEmpty()) {
+                BookingDetails last = page.get(page.size() - 1);
+                cursor = new PageCursor(last.getStart(), last.getId());
+            }
+        } while (page.size() == 7);
+        Assertions.assertEquals(expected.stream().map(Booking::getId).collect(Collectors.toList()),
+                actual.stream().map(BookingDetails::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findFutureByOwnerAfterTest() {
+        LocalDateTime dateTime = LocalDateTime.now().plusDays(15);
+        List<BookingDetails> firstPage = bookingStorage.findFutureByOwnerAfter(owner,
+                dateTime,
+                PageCursor.LATEST,
+                Long.MAX_VALUE,
+                PageRequest.of(0, 5));
+        Assertions.assertFalse(firstPage.isEmpty());
+        BookingDetails last = firstPage.get(firstPage.size() - 1);
+        List<BookingDetails> secondPage = bookingStorage.findFutureByOwnerAfter(owner,
+                dateTime,
+                last.getStart(),
+                last.getId(),
+                PageRequest.of(0, 5));
+        Assertions.assertTrue(secondPage.stream().allMatch(
+                (BookingDetails booking) -> booking.getStart().isAfter(dateTime)
+                        && !booking.getStart().isAfter(last.getStart())
+                        && booking.getItemOwnerId().equals(owner.getId())));
+        Assertions.assertTrue(secondPage.stream().noneMatch(
+                (BookingDetails booking) -> firstPage.stream().anyMatch((BookingDetails b) -> b.getId().equals(booking.getId()))));
+    }
 }
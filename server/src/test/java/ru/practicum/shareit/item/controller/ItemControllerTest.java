@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -12,6 +13,9 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.model.PageCursor;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -21,8 +25,10 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -70,6 +76,22 @@ public class ItemControllerTest {
 
     }
 
+    @Test
+    void addItemsTest() throws Exception {
+        when(itemService.addItems(anyLong(), anyList()))
+                .thenReturn(List.of(itemDto));
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(itemDto.getName()), String.class));
+    }
+
     @Test
     void addCommentTest() throws Exception {
         when(itemService.addComment(anyLong(), any(CommentPostDto.class), anyLong()))
@@ -90,6 +112,26 @@ public class ItemControllerTest {
     }
 
 
+    @Test
+    void getCommentsTest() throws Exception {
+        when(itemService.getComments(anyLong(), nullable(PageCursor.class), anyInt()))
+                .thenReturn(List.of(commentDto));
+        mvc.perform(get("/items/1/comments?size=1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER,
+                        new PageCursor(commentDto.getCreated(), commentDto.getId()).encode()));
+        mvc.perform(get("/items/1/comments?size=0")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getItemsTest() throws Exception {
         when(itemService.getItems(anyLong(), anyInt(), anyInt()))
@@ -127,8 +169,8 @@ public class ItemControllerTest {
 
     @Test
     void getItemTest() throws Exception {
-        when(itemService.getItem(anyLong(), anyLong()))
-                .thenReturn(itemDto);
+        when(itemService.getTaggedItem(anyLong(), anyLong()))
+                .thenReturn(Tagged.of(() -> itemDto, 1L, 3L, 0L));
         mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1L)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -140,7 +182,45 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable()), Boolean.class))
                 .andExpect(jsonPath("$.lastBooking", is(itemDto.getLastBooking()), BookingDto.class))
                 .andExpect(jsonPath("$.nextBooking", is(itemDto.getNextBooking()), BookingDto.class))
-                .andExpect(jsonPath("$.comments.*", hasSize(1)));
+                .andExpect(jsonPath("$.comments.*", hasSize(1)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3-0\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void getItemNotModifiedTest() throws Exception {
+        when(itemService.getTaggedItem(anyLong(), anyLong()))
+                .thenReturn(Tagged.of(() -> {
+                    throw new AssertionError("Тело ответа не должно формироваться");
+                }, 1L, 3L, 0L));
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-2-0\", \"1-3-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3-0\""));
+    }
+
+    @Test
+    void getItemModifiedTest() throws Exception {
+        when(itemService.getTaggedItem(anyLong(), anyLong()))
+                .thenReturn(Tagged.of(() -> itemDto, 1L, 4L, 0L));
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4-0\""))
+                .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void getItemOfOwnerIsPrivateTest() throws Exception {
+        when(itemService.getTaggedItem(anyLong(), anyLong()))
+                .thenReturn(Tagged.personalOf(() -> itemDto, 1L, 3L, 0L, 1L, 2L));
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3-0-1-2\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
     }
 
     @Test
@@ -178,6 +258,53 @@ public class ItemControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void searchAvailableItemsTest() throws Exception {
+        when(itemService.searchAvailableItems(anyString(),
+                any(LocalDateTime.class),
+                any(LocalDateTime.class),
+                anyInt(),
+                anyInt()))
+                .thenReturn(List.of(itemDto));
+        mvc.perform(get("/items/available?text=text&start=2030-01-01T10:00:00&end=2030-01-02T10:00:00")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+        verify(itemService).searchAvailableItems("text",
+                LocalDateTime.of(2030, 1, 1, 10, 0),
+                LocalDateTime.of(2030, 1, 2, 10, 0),
+                0,
+                20);
+    }
+
+    @Test
+    void searchAvailableItemsAfterCursorTest() throws Exception {
+        when(itemService.searchAvailableItems(isNull(),
+                any(LocalDateTime.class),
+                any(LocalDateTime.class),
+                any(PageCursor.class),
+                anyInt()))
+                .thenReturn(List.of(itemDto));
+        mvc.perform(get("/items/available?start=2030-01-01T10:00:00&end=2030-01-02T10:00:00&size=1&cursor="
+                                + PageCursor.of(5L).encode())
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, PageCursor.of(itemDto.getId()).encode()));
+        verify(itemService).searchAvailableItems(isNull(),
+                eq(LocalDateTime.of(2030, 1, 1, 10, 0)),
+                eq(LocalDateTime.of(2030, 1, 2, 10, 0)),
+                argThat((PageCursor cursor) -> cursor.getId() == 5L),
+                eq(1));
+    }
+
     @Test
     void patchItem() throws Exception {
         when(itemService.patchItem(anyLong(), anyLong(), any(ItemDto.class)))
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.dto.ItemCatalogRevision;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+
+public class InMemoryItemSearchEngineTest {
+    private final User owner = new User(1L, "owner", "owner@mail.com");
+    private final Item drill = new Item(1L, "Дрель", "Простая дрель", true, owner, null);
+    private final Item screwdriver = new Item(2L, "Отвертка", "Аккумуляторная отвертка", true, owner, null);
+
+    private ItemStorage itemStorage;
+    private InMemoryItemSearchEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        itemStorage = Mockito.mock(ItemStorage.class);
+        Mockito
+                .when(itemStorage.findAvailableRevision())
+                .thenReturn(new ItemCatalogRevision(1L, 1L, 0L));
+        Mockito
+                .when(itemStorage.findByIsAvailableTrueOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(drill)));
+        Mockito
+                .when(itemStorage.findAllById(anyIterable()))
+                .thenReturn(List.of(drill, screwdriver));
+        engine = new InMemoryItemSearchEngine(itemStorage);
+        engine.bootstrap();
+    }
+
+    @Test
+    void shortQueryIsSearchedInDatabaseTest() {
+        Mockito
+                .when(itemStorage.searchItems(anyString(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(drill)));
+        Mockito
+                .when(itemStorage.searchItemsAfter(anyString(), anyLong(), anyInt()))
+                .thenReturn(List.of(drill));
+
+        Assertions.assertEquals(List.of(drill), engine.search("др", PageRequest.of(0, 10)));
+        Assertions.assertEquals(List.of(drill), engine.searchAfter("др", 0L, 10));
+
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .searchItems("др", PageRequest.of(0, 10));
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .searchItemsAfter("др", 0L, 10);
+        Mockito
+                .verify(itemStorage, Mockito.never())
+                .findAllById(anyIterable());
+    }
+
+    @Test
+    void refreshRebuildsIndexWhenCatalogChangesTest() {
+        engine.refresh();
+        Assertions.assertTrue(engine.searchAfter("отвертка", 0L, 10).isEmpty());
+
+        Mockito
+                .when(itemStorage.findAvailableRevision())
+                .thenReturn(new ItemCatalogRevision(2L, 3L, 0L));
+        Mockito
+                .when(itemStorage.findByIsAvailableTrueOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(drill, screwdriver)));
+        engine.refresh();
+
+        Assertions.assertEquals(List.of(screwdriver), engine.searchAfter("отвертка", 0L, 10));
+        Mockito
+                .verify(itemStorage, Mockito.times(2))
+                .findByIsAvailableTrueOrderByIdAsc(any(Pageable.class));
+    }
+}
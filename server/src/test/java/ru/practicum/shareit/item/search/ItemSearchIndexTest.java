@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    public void populateData() {
+        index = new ItemSearchIndex();
+        index.put(1L, "Дрель", "Простая дрель");
+        index.put(2L, "Отвертка", "Аккумуляторная отвертка");
+        index.put(3L, "Аккумуляторная дрель", "Дрель + аккумулятор");
+        index.put(4L, "Клей", "Тюбик суперклея");
+    }
+
+    @Test
+    void searchIgnoresCaseTest() {
+        Assertions.assertEquals(List.of(1L, 3L), index.search("дРелЬ", 0, 20));
+    }
+
+    @Test
+    void searchBySubstringTest() {
+        Assertions.assertEquals(List.of(2L, 3L), index.search("кумулятор", 0, 20));
+        Assertions.assertEquals(List.of(4L), index.search("клея", 0, 20));
+        Assertions.assertEquals(List.of(), index.search("клей дрель", 0, 20));
+    }
+
+    @Test
+    void searchShortQueryTest() {
+        Assertions.assertEquals(List.of(2L, 3L), index.search("ак", 0, 20));
+        Assertions.assertFalse(index.covers("ак"));
+        Assertions.assertTrue(index.covers("акк"));
+    }
+
+    @Test
+    void searchPagesTest() {
+        Assertions.assertEquals(List.of(1L), index.search("ре", 0, 1));
+        Assertions.assertEquals(List.of(3L), index.search("ре", 1, 1));
+        Assertions.assertEquals(List.of(), index.search("ре", 2, 1));
+    }
+
+    @Test
+    void searchAfterTest() {
+        Assertions.assertEquals(List.of(1L), index.searchAfter("дрель", 0, 1));
+        Assertions.assertEquals(List.of(3L), index.searchAfter("дрель", 1, 1));
+        Assertions.assertEquals(List.of(3L), index.searchAfter("дрель", 2, 20));
+        Assertions.assertEquals(List.of(), index.searchAfter("дрель", 3, 20));
+        Assertions.assertEquals(List.of(3L), index.searchAfter("ак", 2, 20));
+    }
+
+    @Test
+    void updateAndRemoveTest() {
+        index.put(1L, "Молоток", "Большой молоток");
+        Assertions.assertEquals(List.of(3L), index.search("дрель", 0, 20));
+        Assertions.assertEquals(List.of(1L), index.search("молот", 0, 20));
+
+        index.remove(3L);
+        Assertions.assertEquals(List.of(), index.search("дрель", 0, 20));
+        Assertions.assertEquals(List.of(2L), index.search("аккумулятор", 0, 20));
+        Assertions.assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentPostDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.cache.SecondLevelCacheConfig;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemCacheIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(new UserDto(null, "cache-owner", "cache-owner@mail.com"));
+        booker = userService.createUser(new UserDto(null, "cache-booker", "cache-booker@mail.com"));
+        item = itemService.addItem(owner.getId(),
+                new ItemDto(null, "item", "description", true, null, null, null, null));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("DELETE FROM comments WHERE item_id = ?", item.getId());
+        jdbcTemplate.update("DELETE FROM booking_events WHERE booker_id = ?", booker.getId());
+        jdbcTemplate.update("DELETE FROM bookings WHERE user_id = ?", booker.getId());
+        jdbcTemplate.update("DELETE FROM items WHERE user_id = ?", owner.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE user_id IN (?, ?)", owner.getId(), booker.getId());
+    }
+
+    @Test
+    void repeatedGetItemDoesNotHitDatabaseTest() {
+        itemService.getItem(booker.getId(), item.getId());
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        double itemHitsBefore = cacheHits(SecondLevelCacheConfig.ITEMS_REGION);
+
+        ItemDto first = itemService.getItem(booker.getId(), item.getId());
+        ItemDto second = itemService.getItem(booker.getId(), item.getId());
+
+        Assertions.assertEquals("item", first.getName());
+        Assertions.assertEquals("item", second.getName());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+        Assertions.assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        Assertions.assertEquals(2, statistics.getQueryCacheHitCount());
+        Assertions.assertEquals(2.0, cacheHits(SecondLevelCacheConfig.ITEMS_REGION) - itemHitsBefore);
+    }
+
+    @Test
+    void getItemSeesWritesAfterCachingTest() {
+        BookingDto booking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                null,
+                item.getId(),
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2)
+        ));
+        bookingService.patchBookingStatus(owner.getId(), booking.getId(), true);
+        itemService.getItem(booker.getId(), item.getId());
+
+        itemService.patchItem(owner.getId(), item.getId(),
+                new ItemDto(null, "updated", null, null, null, null, null, null));
+        itemService.addComment(booker.getId(), new CommentPostDto("comment"), item.getId());
+        ItemDto updated = itemService.getItem(booker.getId(), item.getId());
+
+        Assertions.assertEquals("updated", updated.getName());
+        Assertions.assertEquals(1, updated.getCommentsCount());
+        Assertions.assertEquals(1, updated.getComments().size());
+    }
+
+    @Test
+    void addCommentEvictsCachedItemTest() {
+        BookingDto booking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                null,
+                item.getId(),
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2)
+        ));
+        bookingService.patchBookingStatus(owner.getId(), booking.getId(), true);
+        itemService.getItem(booker.getId(), item.getId());
+
+        itemService.addComment(booker.getId(), new CommentPostDto("comment"), item.getId());
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        ItemDto updated = itemService.getItem(booker.getId(), item.getId());
+
+        Assertions.assertEquals(1, updated.getCommentsCount());
+        Assertions.assertEquals(1, statistics.getDomainDataRegionStatistics(SecondLevelCacheConfig.ITEMS_REGION)
+                .getMissCount());
+        Assertions.assertEquals(1, statistics.getEntityLoadCount());
+        Assertions.assertEquals(1, statistics.getQueryCacheMissCount());
+    }
+
+    private double cacheHits(String region) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", region)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
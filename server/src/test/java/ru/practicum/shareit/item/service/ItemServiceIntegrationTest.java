@@ -2,18 +2,29 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.model.PageCursor;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Transactional
@@ -24,6 +35,7 @@ public class ItemServiceIntegrationTest {
     private final EntityManager em;
     private final ItemService itemService;
     private final UserService userService;
+    private final BookingService bookingService;
 
     @Test
     void getItemsTest() {
@@ -94,4 +106,193 @@ public class ItemServiceIntegrationTest {
                         .containsAll(itemsIds)
                 );
     }
+
+    @Test
+    void getItemsStatementCountDoesNotDependOnPageSizeTest() {
+        UserDto smallOwner = userService.createUser(new UserDto(null, "small", "small@mail.com"));
+        UserDto bigOwner = userService.createUser(new UserDto(null, "big", "big@mail.com"));
+        UserDto booker1 = userService.createUser(new UserDto(null, "booker1", "booker1@mail.com"));
+        UserDto booker2 = userService.createUser(new UserDto(null, "booker2", "booker2@mail.com"));
+        for (int i = 0; i < 2; i++) {
+            addBookedAndCommentedItem(smallOwner, booker1, booker2);
+        }
+        for (int i = 0; i < 10; i++) {
+            addBookedAndCommentedItem(bigOwner, booker1, booker2);
+        }
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        statistics.clear();
+        Collection<ItemDto> smallPage = itemService.getItems(smallOwner.getId(), 0, 20);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        em.clear();
+        statistics.clear();
+        Collection<ItemDto> bigPage = itemService.getItems(bigOwner.getId(), 0, 20);
+        long bigPageStatements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        Assertions.assertEquals(2, smallPage.size());
+        Assertions.assertEquals(10, bigPage.size());
+        Assertions.assertEquals(smallPageStatements, bigPageStatements);
+        Assertions.assertTrue(bigPage.stream().allMatch((ItemDto item) -> item.getLastBooking() != null
+                && item.getNextBooking() != null
+                && item.getComments().size() == 2));
+    }
+
+    @Test
+    void getItemReturnsLatestCommentsAndCountTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        BookingDto booking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                null,
+                item.getId(),
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2)
+        ));
+        bookingService.patchBookingStatus(owner.getId(), booking.getId(), true);
+        for (int i = 0; i < 15; i++) {
+            itemService.addComment(booker.getId(), new CommentPostDto("comment" + i), item.getId());
+        }
+        em.flush();
+        em.clear();
+
+        ItemDto itemDto = itemService.getItem(booker.getId(), item.getId());
+        Assertions.assertEquals(15, itemDto.getCommentsCount());
+        Assertions.assertEquals(10, itemDto.getComments().size());
+
+        Collection<CommentDto> firstPage = itemService.getComments(item.getId(), null, 10);
+        CommentDto last = firstPage.stream().reduce((first, second) -> second).orElseThrow();
+        Collection<CommentDto> secondPage = itemService.getComments(item.getId(),
+                new PageCursor(last.getCreated(), last.getId()),
+                10);
+        Assertions.assertEquals(itemDto.getComments().stream().map(CommentDto::getId).collect(Collectors.toList()),
+                firstPage.stream().map(CommentDto::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(5, secondPage.size());
+        Assertions.assertTrue(secondPage.stream().noneMatch((CommentDto comment) -> firstPage.stream()
+                .anyMatch((CommentDto other) -> other.getId().equals(comment.getId()))));
+    }
+
+    @Test
+    void getItemDoesNotLoadOwnerTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto user = userService.createUser(new UserDto(null, "user", "user@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        em.flush();
+        em.clear();
+        statistics.clear();
+        ItemDto itemDto = itemService.getItem(user.getId(), item.getId());
+        long statements = statistics.getPrepareStatementCount();
+        long loads = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        Assertions.assertEquals("item", itemDto.getName());
+        Assertions.assertEquals(2, statements);
+        Assertions.assertEquals(1, loads);
+    }
+
+    @Test
+    void getTaggedItemChangesOnlyAfterWritesTest() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", "owner@mail.com"));
+        UserDto booker = userService.createUser(new UserDto(null, "booker", "booker@mail.com"));
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        BookingDto booking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                null,
+                item.getId(),
+                LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2)
+        ));
+        bookingService.patchBookingStatus(owner.getId(), booking.getId(), true);
+        itemService.addComment(booker.getId(), new CommentPostDto("comment"), item.getId());
+
+        String first = taggedItem(booker.getId(), item.getId());
+        String repeated = taggedItem(booker.getId(), item.getId());
+        String ofOwner = taggedItem(owner.getId(), item.getId());
+        itemService.patchItem(owner.getId(), item.getId(),
+                new ItemDto(null, "updated", null, null, null, null, null, null));
+        String patched = taggedItem(booker.getId(), item.getId());
+        itemService.addComment(booker.getId(), new CommentPostDto("another comment"), item.getId());
+        String commented = taggedItem(booker.getId(), item.getId());
+        userService.updateUser(booker.getId(), new UserDto(null, "renamed", null));
+        String renamed = taggedItem(booker.getId(), item.getId());
+
+        Assertions.assertEquals(first, repeated);
+        Assertions.assertEquals(5, Set.of(first, ofOwner, patched, commented, renamed).size());
+        Assertions.assertTrue(itemService.getTaggedItem(owner.getId(), item.getId()).isPersonal());
+        Assertions.assertFalse(itemService.getTaggedItem(booker.getId(), item.getId()).isPersonal());
+    }
+
+    private String taggedItem(Long userId, Long itemId) {
+        em.flush();
+        em.clear();
+        return itemService.getTaggedItem(userId, itemId).getETag();
+    }
+
+    private void addBookedAndCommentedItem(UserDto owner, UserDto... bookers) {
+        ItemDto item = itemService.addItem(owner.getId(), new ItemDto(
+                null,
+                "item",
+                "description",
+                true,
+                null,
+                null,
+                null,
+                null
+        ));
+        LocalDateTime pastStart = LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        for (UserDto booker : bookers) {
+            BookingDto pastBooking = bookingService.createBooking(booker.getId(), new BookingPostDto(
+                    null,
+                    item.getId(),
+                    pastStart,
+                    pastStart.plusHours(1)
+            ));
+            pastStart = pastStart.plusHours(1);
+            bookingService.patchBookingStatus(owner.getId(), pastBooking.getId(), true);
+            bookingService.createBooking(booker.getId(), new BookingPostDto(
+                    null,
+                    item.getId(),
+                    LocalDateTime.now().plusDays(2),
+                    LocalDateTime.now().plusDays(3)
+            ));
+            itemService.addComment(booker.getId(), new CommentPostDto("comment"), item.getId());
+        }
+    }
 }
@@ -4,7 +4,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingStorage;
@@ -12,6 +15,7 @@ import ru.practicum.shareit.item.dto.CommentPostDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -20,11 +24,16 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.utils.exceptions.UnauthorizedAccessException;
 import ru.practicum.shareit.utils.exceptions.UnsupportedOperationException;
+import ru.practicum.shareit.utils.exceptions.ValidationException;
+import ru.practicum.shareit.utils.model.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.*;
 
@@ -40,12 +49,14 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemStorage.save(any(Item.class)))
@@ -62,13 +73,59 @@ public class ItemServiceTest {
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .save(any(Item.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
+    @Test
+    void addItemsTest() {
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        CommentStorage commentStorage = Mockito.mock(CommentStorage.class);
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        ItemRequestStorage itemRequestStorage = Mockito.mock(ItemRequestStorage.class);
+        ItemService itemService = new ItemServiceImpl(itemStorage,
+                userStorage,
+                commentStorage,
+                bookingStorage,
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
+        User testUser = new User(1L, "testname", "test@mail.com");
+        ItemRequest testRequest = new ItemRequest(1L, "description", testUser, LocalDateTime.now());
+
+        Mockito
+                .when(userStorage.findCachedById(anyLong()))
+                .thenReturn(Optional.of(testUser));
+        Mockito
+                .when(itemRequestStorage.findAllById(anyIterable()))
+                .thenReturn(List.of(testRequest));
+        Mockito
+                .when(itemStorage.saveAll(anyIterable()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Collection<ItemDto> items = itemService.addItems(1L, List.of(
+                new ItemDto(null, "test", "description", true, null, null, null, null),
+                new ItemDto(null, "test2", "description", true, 1L, null, null, null)));
+
+        Assertions.assertEquals(List.of("test", "test2"), items.stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList()));
+        Mockito
+                .verify(userStorage, Mockito.times(1))
+                .findCachedById(anyLong());
+        Mockito
+                .verify(itemRequestStorage, Mockito.times(1))
+                .findAllById(Set.of(1L));
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .saveAll(anyIterable());
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
+    }
+
     @Test
     void addItemWithRequestTest() {
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
@@ -80,12 +137,14 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemStorage.save(any(Item.class)))
@@ -105,7 +164,7 @@ public class ItemServiceTest {
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemRequestStorage, Mockito.times(1))
                 .findById(anyLong());
@@ -126,43 +185,40 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
-        Item testItem = new Item(1L, "test", "description", true, testUser, null);
+        ItemDto testItem = new ItemDto(1L, "test", "description", true, null, 0L);
 
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemStorage.findAllByOwnerIsOrderByIdAsc(any(User.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(testItem)));
-        Mockito
-                .when(bookingStorage.findFirstByItemIsAndEndBeforeOrderByEndDesc(any(Item.class), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
+                .thenReturn(new SliceImpl<>(List.of(testItem)));
         Mockito
-                .when(bookingStorage.findFirstByItemIsAndStartAfterOrderByStartAsc(any(Item.class), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
+                .when(bookingStorage.findLastAndNextBookings(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of());
         Mockito
-                .when(commentStorage.findByItemIsOrderByCreatedDesc(any(Item.class)))
+                .when(commentStorage.findLatestByItemIdIn(anyCollection(), anyInt()))
                 .thenReturn(List.of());
 
-        itemService.getItems(1L, 0, 20);
+        Collection<ItemDto> dtos = itemService.getItems(1L, 0, 20);
+        Assertions.assertEquals(1, dtos.size());
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findAllByOwnerIsOrderByIdAsc(any(User.class), any(Pageable.class));
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findFirstByItemIsAndEndBeforeOrderByEndDesc(any(Item.class), any(LocalDateTime.class));
-        Mockito
-                .verify(bookingStorage, Mockito.times(1))
-                .findFirstByItemIsAndStartAfterOrderByStartAsc(any(Item.class), any(LocalDateTime.class));
+                .findLastAndNextBookings(anyCollection(), any(LocalDateTime.class));
         Mockito
                 .verify(commentStorage, Mockito.times(1))
-                .findByItemIsOrderByCreatedDesc(any(Item.class));
+                .findLatestByItemIdIn(anyCollection(), eq(10));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
@@ -177,7 +233,9 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
@@ -188,7 +246,10 @@ public class ItemServiceTest {
                 .when(itemStorage.save(any(Item.class)))
                 .then(org.mockito.AdditionalAnswers.returnsFirstArg());
         Mockito
-                .when(commentStorage.findByItemIsOrderByCreatedDesc(any(Item.class)))
+                .when(commentStorage.findByItemIdAfter(anyLong(),
+                        any(LocalDateTime.class),
+                        anyLong(),
+                        any(Pageable.class)))
                 .thenReturn(List.of());
 
         Assertions.assertThrows(UnauthorizedAccessException.class, () -> itemService.patchItem(
@@ -259,7 +320,7 @@ public class ItemServiceTest {
                 .save(any(Item.class));
         Mockito
                 .verify(commentStorage, Mockito.times(4))
-                .findByItemIsOrderByCreatedDesc(any(Item.class));
+                .findByItemIdAfter(anyLong(), any(LocalDateTime.class), anyLong(), any(Pageable.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
@@ -274,7 +335,9 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
@@ -298,7 +361,10 @@ public class ItemServiceTest {
                         testUser,
                         BookingStatus.APPROVED)));
         Mockito
-                .when(commentStorage.findByItemIsOrderByCreatedDesc(any(Item.class)))
+                .when(commentStorage.findByItemIdAfter(anyLong(),
+                        any(LocalDateTime.class),
+                        anyLong(),
+                        any(Pageable.class)))
                 .thenReturn(List.of());
 
         ItemDto answer = itemService.getItem(2L, 1L);
@@ -311,7 +377,7 @@ public class ItemServiceTest {
                 .findById(anyLong());
         Mockito
                 .verify(commentStorage, Mockito.times(1))
-                .findByItemIsOrderByCreatedDesc(any(Item.class));
+                .findByItemIdAfter(anyLong(), any(LocalDateTime.class), anyLong(), any(Pageable.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
@@ -326,7 +392,9 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
@@ -350,7 +418,10 @@ public class ItemServiceTest {
                         testUser,
                         BookingStatus.APPROVED)));
         Mockito
-                .when(commentStorage.findByItemIsOrderByCreatedDesc(any(Item.class)))
+                .when(commentStorage.findByItemIdAfter(anyLong(),
+                        any(LocalDateTime.class),
+                        anyLong(),
+                        any(Pageable.class)))
                 .thenReturn(List.of());
 
         ItemDto answer = itemService.getItem(1L, 1L);
@@ -369,7 +440,7 @@ public class ItemServiceTest {
                 .findFirstByItemIsAndStartAfterOrderByStartAsc(any(Item.class), any(LocalDateTime.class));
         Mockito
                 .verify(commentStorage, Mockito.times(1))
-                .findByItemIsOrderByCreatedDesc(any(Item.class));
+                .findByItemIdAfter(anyLong(), any(LocalDateTime.class), anyLong(), any(Pageable.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
@@ -384,7 +455,9 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
@@ -410,7 +483,9 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
@@ -428,6 +503,139 @@ public class ItemServiceTest {
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
+    @Test
+    void searchAvailableItemsTest() {
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        CommentStorage commentStorage = Mockito.mock(CommentStorage.class);
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        ItemRequestStorage itemRequestStorage = Mockito.mock(ItemRequestStorage.class);
+        BookingAvailabilityEngine availability = new BookingAvailabilityEngine(bookingStorage, itemStorage);
+        ItemService itemService = new ItemServiceImpl(itemStorage,
+                userStorage,
+                commentStorage,
+                bookingStorage,
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                availability);
+        User testUser = new User(1L, "testname", "test@mail.com");
+        Item bookedItem = new Item(1L, "booked", "description", true, testUser, null);
+        Item rejectedItem = new Item(2L, "rejected", "description", true, testUser, null);
+        Item freeItem = new Item(3L, "free", "description", true, testUser, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        Booking booking = new Booking(1L, bookedItem, start.plusDays(1), end.plusDays(1), testUser,
+                BookingStatus.WAITING);
+        Booking rejectedBooking = new Booking(2L, rejectedItem, start, end, testUser, BookingStatus.WAITING);
+        availability.booked(booking);
+        availability.booked(rejectedBooking);
+        availability.released(rejectedBooking);
+
+        Mockito
+                .when(itemStorage.searchItems(anyString(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(bookedItem, rejectedItem, freeItem)));
+
+        Collection<ItemDto> dtos = itemService.searchAvailableItems("item", start, end, 0, 20);
+        Assertions.assertEquals(List.of(2L, 3L), dtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        dtos = itemService.searchAvailableItems("item", start, end, 1, 1);
+        Assertions.assertEquals(List.of(3L), dtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        dtos = itemService.searchAvailableItems("item", end.plusDays(1), end.plusDays(2), 0, 20);
+        Assertions.assertEquals(3, dtos.size());
+        Assertions.assertThrows(ValidationException.class,
+                () -> itemService.searchAvailableItems("item", end, start, 0, 20));
+
+        Mockito
+                .verify(itemStorage, Mockito.times(3))
+                .searchItems(anyString(), any(Pageable.class));
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
+    }
+
+    @Test
+    void searchAvailableItemsScansLimitedBatchesTest() {
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        CommentStorage commentStorage = Mockito.mock(CommentStorage.class);
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        ItemRequestStorage itemRequestStorage = Mockito.mock(ItemRequestStorage.class);
+        BookingAvailabilityEngine availability = new BookingAvailabilityEngine(bookingStorage, itemStorage);
+        ItemService itemService = new ItemServiceImpl(itemStorage,
+                userStorage,
+                commentStorage,
+                bookingStorage,
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                availability);
+        User testUser = new User(1L, "testname", "test@mail.com");
+        Item bookedItem = new Item(1L, "booked", "description", true, testUser, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        availability.booked(new Booking(1L, bookedItem, start, end, testUser, BookingStatus.APPROVED));
+        List<Item> bookedBatch = Collections.nCopies(100, bookedItem);
+
+        Mockito
+                .when(itemStorage.searchItems(anyString(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(bookedBatch));
+        Mockito
+                .when(itemStorage.searchItemsAfter(anyString(), anyLong(), anyInt()))
+                .thenReturn(bookedBatch);
+
+        Assertions.assertTrue(itemService.searchAvailableItems("booked", start, end, 0, 20).isEmpty());
+        Assertions.assertTrue(itemService.searchAvailableItems("booked", start, end, (PageCursor) null, 20).isEmpty());
+
+        Mockito
+                .verify(itemStorage, Mockito.times(10))
+                .searchItems(anyString(), any(Pageable.class));
+        Mockito
+                .verify(itemStorage, Mockito.times(10))
+                .searchItemsAfter(anyString(), anyLong(), anyInt());
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
+    }
+
+    @Test
+    void searchAvailableItemsAfterTest() {
+        ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
+        UserStorage userStorage = Mockito.mock(UserStorage.class);
+        CommentStorage commentStorage = Mockito.mock(CommentStorage.class);
+        BookingStorage bookingStorage = Mockito.mock(BookingStorage.class);
+        ItemRequestStorage itemRequestStorage = Mockito.mock(ItemRequestStorage.class);
+        BookingAvailabilityEngine availability = new BookingAvailabilityEngine(bookingStorage, itemStorage);
+        ItemService itemService = new ItemServiceImpl(itemStorage,
+                userStorage,
+                commentStorage,
+                bookingStorage,
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                availability);
+        User testUser = new User(1L, "testname", "test@mail.com");
+        Item bookedItem = new Item(2L, "booked", "description", true, testUser, null);
+        Item freeItem = new Item(3L, "free", "description", true, testUser, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        availability.booked(new Booking(1L, bookedItem, start, end, testUser, BookingStatus.WAITING));
+
+        Mockito
+                .when(itemStorage.findFreeAvailableItemsAfter(anyCollection(), any(LocalDateTime.class),
+                        any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(freeItem));
+        Mockito
+                .when(itemStorage.searchItemsAfter(anyString(), anyLong(), anyInt()))
+                .thenReturn(List.of(freeItem));
+
+        Collection<ItemDto> dtos = itemService.searchAvailableItems(null, start, end, PageCursor.of(1L), 20);
+        Assertions.assertEquals(List.of(3L), dtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        dtos = itemService.searchAvailableItems("free", start, end, (PageCursor) null, 20);
+        Assertions.assertEquals(List.of(3L), dtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .findFreeAvailableItemsAfter(List.of(BookingStatus.WAITING, BookingStatus.APPROVED), start, end, 1L,
+                        PageRequest.of(0, 20));
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .searchItemsAfter("free", 0L, 100);
+        Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
+    }
+
     @Test
     void addCommentNotBookedTest() {
         ItemStorage itemStorage = Mockito.mock(ItemStorage.class);
@@ -439,35 +647,33 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testItem));
         Mockito
-                .when(bookingStorage.findAllByBookerAndItemAndEndBeforeOrderByStartDesc(any(User.class),
-                        any(Item.class),
-                        any(LocalDateTime.class)))
-                .thenReturn(List.of());
+                .when(bookingStorage.existsPastBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(false);
         Assertions.assertThrows(UnsupportedOperationException.class,
                 () -> itemService.addComment(1L, new CommentPostDto("comment"), 1L));
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findAllByBookerAndItemAndEndBeforeOrderByStartDesc(any(User.class),
-                        any(Item.class),
-                        any(LocalDateTime.class));
+                .existsPastBooking(eq(1L), eq(1L), any(LocalDateTime.class));
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 
@@ -482,26 +688,21 @@ public class ItemServiceTest {
                 userStorage,
                 commentStorage,
                 bookingStorage,
-                itemRequestStorage);
+                itemRequestStorage,
+                new DatabaseItemSearchEngine(itemStorage),
+                new BookingAvailabilityEngine(bookingStorage, itemStorage));
         User testUser = new User(1L, "testname", "test@mail.com");
         Item testItem = new Item(1L, "test", "description", true, testUser, null);
 
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testItem));
         Mockito
-                .when(bookingStorage.findAllByBookerAndItemAndEndBeforeOrderByStartDesc(any(User.class),
-                        any(Item.class),
-                        any(LocalDateTime.class)))
-                .thenReturn(List.of(new Booking(
-                        testItem,
-                        LocalDateTime.of(2000, 1, 21, 12, 30),
-                        LocalDateTime.of(2022, 1, 21, 12, 30),
-                        testUser,
-                        BookingStatus.APPROVED)));
+                .when(bookingStorage.existsPastBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(true);
         Mockito
                 .when(commentStorage.save(any(Comment.class)))
                         .thenReturn(new Comment(1L, testItem, testUser, "text", LocalDateTime.now()));
@@ -510,18 +711,19 @@ public class ItemServiceTest {
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
                 .findById(anyLong());
         Mockito
                 .verify(bookingStorage, Mockito.times(1))
-                .findAllByBookerAndItemAndEndBeforeOrderByStartDesc(any(User.class),
-                        any(Item.class),
-                        any(LocalDateTime.class));
+                .existsPastBooking(eq(1L), eq(1L), any(LocalDateTime.class));
         Mockito
                 .verify(commentStorage, Mockito.times(1))
                 .save(any(Comment.class));
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .incrementCommentsCount(1L);
         Mockito.verifyNoMoreInteractions(userStorage, itemStorage, commentStorage, bookingStorage, itemRequestStorage);
     }
 }
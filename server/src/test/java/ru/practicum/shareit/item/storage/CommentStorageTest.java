@@ -5,12 +5,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.CommentDetails;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.model.PageCursor;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 public class CommentStorageTest {
@@ -87,11 +93,31 @@ public class CommentStorageTest {
     }
 
     @Test
-    void findByItemTest() {
+    void findByItemIdAfterTest() {
         populateData();
-        Collection<Comment> comments = commentStorage.findByItemIsOrderByCreatedDesc(testItem);
+        List<CommentDetails> comments = commentStorage.findByItemIdAfter(testItem.getId(),
+                PageCursor.LATEST,
+                Long.MAX_VALUE,
+                PageRequest.of(0, 10));
         Assertions.assertTrue(comments.stream().allMatch(
-                (Comment comment) -> comment.getItem().getId().equals(testItem.getId())));
+                (CommentDetails comment) -> comment.getItemId().equals(testItem.getId())));
         Assertions.assertEquals(3, comments.size());
     }
+
+    @Test
+    void findLatestByItemIdInTest() {
+        populateData();
+        em.flush();
+        Map<Long, List<String>> comments = commentStorage.findLatestByItemIdIn(List.of(testItem.getId()), 2)
+                .stream()
+                .collect(Collectors.groupingBy(CommentItemView::getItemId,
+                        Collectors.mapping(CommentItemView::getText, Collectors.toList())));
+
+        Assertions.assertEquals(Map.of(testItem.getId(), List.of("comment5", "comment2")), comments);
+        Assertions.assertEquals(5, commentStorage.findLatestByItemIdIn(List.of(testItem.getId(),
+                testItem.getId() + 1,
+                testItem.getId() + 2), 2).size());
+        Assertions.assertTrue(commentStorage.findLatestByItemIdIn(List.of(testItem.getId()), 2).stream()
+                .allMatch(comment -> comment.getAuthorName().equals("author") && comment.getCreated() != null));
+    }
 }
@@ -8,13 +8,20 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemCatalogRevision;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 public class ItemStorageTest {
@@ -75,11 +82,11 @@ public class ItemStorageTest {
 
     @Test
     void findByOwnerTest() {
-        Page<Item> items = itemStorage.findAllByOwnerIsOrderByIdAsc(
+        Slice<ItemDto> items = itemStorage.findAllByOwnerIsOrderByIdAsc(
                 testUser, PageRequest.of(0, 20));
-        Assertions.assertEquals(1, items.getTotalElements());
+        Assertions.assertEquals(1, items.getNumberOfElements());
         Assertions.assertTrue(items.stream().allMatch(
-                (Item item) -> item.getOwner().getId().equals(testUser.getId())));
+                (ItemDto item) -> item.getId().equals(testItem.getId())));
     }
 
     @Test
@@ -94,10 +101,66 @@ public class ItemStorageTest {
 
     @Test
     void findByRequestTest() {
-        Collection<Item> items = itemStorage.findAllByRequestIn(List.of(itemRequest));
+        Collection<ItemDto> items = itemStorage.findAllByRequestIdIn(List.of(itemRequest.getId()));
         Assertions.assertEquals(1, items.size());
         Assertions.assertTrue(items.stream().allMatch(
-                (Item item) -> item.getRequest() != null
-                        && item.getRequest().getId().equals(itemRequest.getId())));
+                (ItemDto item) -> itemRequest.getId().equals(item.getRequestId())));
+    }
+
+    @Test
+    void findByOwnerAfterTest() {
+        User owner = em.find(User.class, testUser.getId() + 1);
+        List<ItemDto> firstPage = itemStorage.findAllByOwnerIsAndIdGreaterThanOrderByIdAsc(
+                owner, 0L, PageRequest.of(0, 2));
+        List<ItemDto> secondPage = itemStorage.findAllByOwnerIsAndIdGreaterThanOrderByIdAsc(
+                owner, firstPage.get(1).getId(), PageRequest.of(0, 2));
+        Assertions.assertEquals(2, firstPage.size());
+        Assertions.assertEquals(1, secondPage.size());
+        Assertions.assertTrue(firstPage.get(0).getId() < firstPage.get(1).getId());
+        Assertions.assertTrue(firstPage.get(1).getId() < secondPage.get(0).getId());
+    }
+
+    @Test
+    void findFreeAvailableItemsTest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(2);
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+        em.persist(new Booking(testItem, start.plusDays(1), end.plusDays(1), testUser, BookingStatus.APPROVED));
+        Item rejected = em.find(Item.class, testItem.getId() + 1);
+        em.persist(new Booking(rejected, start, end, testUser, BookingStatus.REJECTED));
+
+        Slice<Item> freeItems = itemStorage.findFreeAvailableItems(statuses, start, end, PageRequest.of(0, 2));
+        List<Item> freeAfter = itemStorage.findFreeAvailableItemsAfter(statuses, start, end,
+                freeItems.getContent().get(1).getId(), PageRequest.of(0, 20));
+        List<Item> freeLater = itemStorage.findFreeAvailableItemsAfter(statuses, end.plusDays(1), end.plusDays(2),
+                0L, PageRequest.of(0, 20));
+
+        Assertions.assertEquals(List.of(testItem.getId() + 1, testItem.getId() + 2),
+                freeItems.map(Item::getId).getContent());
+        Assertions.assertTrue(freeItems.hasNext());
+        Assertions.assertEquals(List.of(testItem.getId() + 3),
+                freeAfter.stream().map(Item::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(List.of(testItem.getId(), testItem.getId() + 1, testItem.getId() + 2,
+                        testItem.getId() + 3),
+                freeLater.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAvailableRevisionTest() {
+        ItemCatalogRevision before = itemStorage.findAvailableRevision();
+        ItemCatalogRevision unchanged = itemStorage.findAvailableRevision();
+        Item item = em.find(Item.class, testItem.getId());
+        item.setDescription("updated");
+        em.flush();
+        ItemCatalogRevision edited = itemStorage.findAvailableRevision();
+        item.setAvailable(false);
+        em.flush();
+        ItemCatalogRevision deactivated = itemStorage.findAvailableRevision();
+
+        Assertions.assertEquals(4L, before.getItems());
+        Assertions.assertEquals(before, unchanged);
+        Assertions.assertNotEquals(before, edited);
+        Assertions.assertNotEquals(edited, deactivated);
+        Assertions.assertEquals(3L, deactivated.getItems());
     }
 }
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utils.model.Tagged;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -21,6 +23,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -94,8 +97,8 @@ public class ItemRequestControllerTest {
 
     @Test
     void getRequestsByIdTest() throws Exception {
-        when(itemRequestService.getRequestById(anyLong(), anyLong()))
-                .thenReturn(itemRequestDto);
+        when(itemRequestService.getTaggedRequestById(anyLong(), anyLong()))
+                .thenReturn(Tagged.of(() -> itemRequestDto, 1L, 0L, 0L));
         mvc.perform(get("/requests/1")
                         .header("X-Sharer-User-Id", 1L)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -107,7 +110,19 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.requester", is(itemRequestDto.getRequester()), Long.class))
                 .andExpect(jsonPath("$.created",
                         is(itemRequestDto.getCreated().format(DateTimeFormatter.ISO_DATE_TIME)), String.class))
-                .andExpect(jsonPath("$.items.*", hasSize(0)));
+                .andExpect(jsonPath("$.items.*", hasSize(0)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0\""));
+    }
+
+    @Test
+    void getRequestByIdNotModifiedTest() throws Exception {
+        when(itemRequestService.getTaggedRequestById(anyLong(), anyLong()))
+                .thenReturn(Tagged.of(() -> itemRequestDto, 1L, 0L, 0L));
+        mvc.perform(get("/requests/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
     }
 
     @Test
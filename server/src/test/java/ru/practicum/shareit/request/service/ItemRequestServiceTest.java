@@ -2,9 +2,10 @@ package ru.practicum.shareit.request.service;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestPostDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
@@ -30,7 +31,7 @@ public class ItemRequestServiceTest {
                 itemStorage
         );
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(new User(1L, "test", "test@test.com")));
         Mockito
                 .when(itemRequestStorage.save(any(ItemRequest.class)))
@@ -43,7 +44,7 @@ public class ItemRequestServiceTest {
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemRequestStorage, Mockito.times(1))
                 .save(any(ItemRequest.class));
@@ -62,28 +63,28 @@ public class ItemRequestServiceTest {
                 itemStorage
         );
         User testUser = new User(1L, "test", "test@test.com");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", testUser, LocalDateTime.now());
+        ItemRequestDto itemRequest = new ItemRequestDto(1L, "описание", testUser.getId(), LocalDateTime.now());
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemRequestStorage.findByRequesterIsOrderByCreatedDesc(any(User.class)))
                 .thenReturn(List.of(itemRequest));
         Mockito
-                .when(itemStorage.findAllByRequestIn(anyCollection()))
+                .when(itemStorage.findAllByRequestIdIn(anyCollection()))
                 .thenReturn(new LinkedList<>());
 
         itemRequestService.getRequests(testUser.getId());
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemRequestStorage, Mockito.times(1))
                 .findByRequesterIsOrderByCreatedDesc(any(User.class));
         Mockito
                 .verify(itemStorage, Mockito.times(1))
-                .findAllByRequestIn(anyCollection());
+                .findAllByRequestIdIn(anyCollection());
 
         Mockito.verifyNoMoreInteractions(itemRequestStorage, itemStorage, userStorage);
     }
@@ -101,26 +102,29 @@ public class ItemRequestServiceTest {
         User testUser = new User(1L, "test", "test@test.com");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", testUser, LocalDateTime.now());
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemRequestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(itemRequest));
         Mockito
-                .when(itemStorage.findAllByRequestIn(anyCollection()))
+                .when(itemStorage.findAllByRequestIdIn(anyCollection()))
                 .thenReturn(new LinkedList<>());
 
         itemRequestService.getRequestById(testUser.getId(), itemRequest.getId());
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemRequestStorage, Mockito.times(1))
                 .findById(anyLong());
         Mockito
                 .verify(itemStorage, Mockito.times(1))
-                .findAllByRequestIn(anyCollection());
+                .findAllByRequestIdIn(anyCollection());
+        Mockito
+                .verify(itemStorage, Mockito.times(1))
+                .countRevisionsByRequestId(anyLong());
 
         Mockito.verifyNoMoreInteractions(itemRequestStorage, itemStorage, userStorage);
     }
@@ -136,28 +140,28 @@ public class ItemRequestServiceTest {
                 itemStorage
         );
         User testUser = new User(1L, "test", "test@test.com");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", testUser, LocalDateTime.now());
+        ItemRequestDto itemRequest = new ItemRequestDto(1L, "описание", testUser.getId(), LocalDateTime.now());
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
         Mockito
                 .when(itemRequestStorage.findAllByRequesterIsNotOrderByCreatedDesc(any(User.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(itemRequest)));
+                .thenReturn(new SliceImpl<>(List.of(itemRequest)));
         Mockito
-                .when(itemStorage.findAllByRequestIn(anyCollection()))
+                .when(itemStorage.findAllByRequestIdIn(anyCollection()))
                 .thenReturn(new LinkedList<>());
 
         itemRequestService.getAllRequests(testUser.getId(), 0, 20);
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito
                 .verify(itemRequestStorage, Mockito.times(1))
                 .findAllByRequesterIsNotOrderByCreatedDesc(any(User.class), any(Pageable.class));
         Mockito
                 .verify(itemStorage, Mockito.times(1))
-                .findAllByRequestIn(anyCollection());
+                .findAllByRequestIdIn(anyCollection());
 
         Mockito.verifyNoMoreInteractions(itemRequestStorage, itemStorage, userStorage);
     }
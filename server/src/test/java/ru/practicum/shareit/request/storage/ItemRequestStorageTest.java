@@ -5,13 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.model.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @DataJpaTest
 public class ItemRequestStorageTest {
@@ -55,20 +58,37 @@ public class ItemRequestStorageTest {
     @Test
     void findByRequesterTest() {
         populateData();
-        Collection<ItemRequest> itemRequests = itemRequestStorage.findByRequesterIsOrderByCreatedDesc(
+        Collection<ItemRequestDto> itemRequests = itemRequestStorage.findByRequesterIsOrderByCreatedDesc(
                 user1);
         Assertions.assertEquals(itemRequests.size(), 1);
         Assertions.assertTrue(itemRequests.stream().allMatch(
-                (ItemRequest itemRequest) -> itemRequest.getRequester().getId().equals(user1.getId())));
+                (ItemRequestDto itemRequest) -> itemRequest.getRequester().equals(user1.getId())));
     }
 
     @Test
     void findByRequesterIsNotTest() {
         populateData();
-        Page<ItemRequest> itemRequests = itemRequestStorage.findAllByRequesterIsNotOrderByCreatedDesc(
+        Slice<ItemRequestDto> itemRequests = itemRequestStorage.findAllByRequesterIsNotOrderByCreatedDesc(
                 user1, PageRequest.of(0, 20));
-        Assertions.assertEquals(itemRequests.getTotalElements(), 2);
+        Assertions.assertEquals(itemRequests.getNumberOfElements(), 2);
         Assertions.assertTrue(itemRequests.stream().noneMatch(
-                (ItemRequest itemRequest) -> itemRequest.getRequester().getId().equals(user1.getId())));
+                (ItemRequestDto itemRequest) -> itemRequest.getRequester().equals(user1.getId())));
+    }
+
+    @Test
+    void findByRequesterIsNotAfterTest() {
+        populateData();
+        em.flush();
+        em.clear();
+        List<ItemRequestDto> firstPage = itemRequestStorage.findAllByRequesterIsNotAfter(
+                user1, PageCursor.LATEST, Long.MAX_VALUE, PageRequest.of(0, 1));
+        Assertions.assertEquals(1, firstPage.size());
+        ItemRequestDto last = firstPage.get(0);
+        List<ItemRequestDto> secondPage = itemRequestStorage.findAllByRequesterIsNotAfter(
+                user1, last.getCreated(), last.getId(), PageRequest.of(0, 20));
+        Assertions.assertEquals(1, secondPage.size());
+        Assertions.assertNotEquals(last.getId(), secondPage.get(0).getId());
+        Assertions.assertTrue(secondPage.stream().noneMatch(
+                (ItemRequestDto itemRequest) -> itemRequest.getRequester().equals(user1.getId())));
     }
 }
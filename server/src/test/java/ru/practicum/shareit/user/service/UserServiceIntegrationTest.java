@@ -1,12 +1,18 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.cache.SecondLevelCacheConfig;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -21,6 +27,7 @@ import javax.persistence.EntityManager;
 public class UserServiceIntegrationTest {
     private final EntityManager em;
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
 
     @Test
     void updateItemTest() {
@@ -36,4 +43,47 @@ public class UserServiceIntegrationTest {
         assertThat(user.getName(), equalTo(updatedDto.getName()));
         assertThat(user.getEmail(), equalTo(updatedDto.getEmail()));
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getUserIsCachedUntilUpdatedTest() {
+        UserDto created = userService.createUser(new UserDto(null, "cached", "cached@mail.com"));
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        statistics.clear();
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+        userService.getUser(created.getId());
+        UserDto cached = userService.getUser(created.getId());
+        long loads = statistics.getEntityLoadCount();
+        CacheRegionStatistics users = statistics.getDomainDataRegionStatistics(SecondLevelCacheConfig.USERS_REGION);
+        long hits = users.getHitCount();
+        long misses = users.getMissCount();
+        double metricHits = cacheGets("hit") - hitsBefore;
+        double metricMisses = cacheGets("miss") - missesBefore;
+        statistics.setStatisticsEnabled(false);
+
+        userService.updateUser(created.getId(), new UserDto(null, "updated", null));
+        UserDto updated = userService.getUser(created.getId());
+        userService.deleteUser(created.getId());
+
+        assertThat(cached.getName(), equalTo("cached"));
+        assertThat(loads, equalTo(0L));
+        assertThat(hits, equalTo(2L));
+        assertThat(misses, equalTo(0L));
+        assertThat(metricHits, equalTo(2.0));
+        assertThat(metricMisses, equalTo(0.0));
+        assertThat(updated.getName(), equalTo("updated"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", SecondLevelCacheConfig.USERS_REGION)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
 }
@@ -36,14 +36,14 @@ public class UserServiceTest {
         UserService userService = new UserServiceImpl(userStorage);
         User testUser = new User(1L, "testname", "test@mail.com");
         Mockito
-                .when(userStorage.findById(anyLong()))
+                .when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(testUser));
 
         userService.getUser(1L);
 
         Mockito
                 .verify(userStorage, Mockito.times(1))
-                .findById(anyLong());
+                .findCachedById(anyLong());
         Mockito.verifyNoMoreInteractions(userStorage);
     }
 